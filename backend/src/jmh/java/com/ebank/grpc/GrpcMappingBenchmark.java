@@ -0,0 +1,51 @@
+package com.ebank.grpc;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.AccountDTO;
+import com.ebank.grpc.generated.AccountResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcMappingBenchmark {
+
+    @Param({"true", "false"})
+    private boolean legacyStringFields;
+
+    private ConfigurableApplicationContext context;
+    private AccountGrpcServiceImpl accountGrpcService;
+    private AccountDTO account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("--ebank.grpc.legacy-string-fields=" + legacyStringFields);
+        accountGrpcService = BenchmarkSupport.target(context.getBean(AccountGrpcServiceImpl.class));
+        account = AccountDTO.builder()
+                .id(1L)
+                .rib("MA64001128000012345678901234")
+                .balance(new BigDecimal("5000.00"))
+                .status("OPEN")
+                .createdAt(LocalDateTime.now())
+                .clientName("Ahmed Kassimi")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountResponse mapToAccountResponse() {
+        return accountGrpcService.mapToAccountResponse(account);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.BatchTransferResultDTO;
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountStatus;
+import com.ebank.entity.Client;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.ClientRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfers per millisecond through {@link BatchTransferService#executeBatch} versus
+ * one {@link TransactionService#executeTransfer} call per transfer, on embedded H2,
+ * over a ring of accounts owned by one client. The {@code contended} group runs a
+ * batch next to single transfers: their sample time shows how long a single transfer
+ * waits for the lock stripes a chunk holds until it commits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchTransferBenchmark {
+
+    private static final String OWNER_RIB = "MA64001128000012345678901234";
+    private static final String OWNER = "client1";
+    private static final int ACCOUNTS = 256;
+    private static final int BATCH = 1000;
+
+    @Param({"50", "100", "500"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private BatchTransferService batchTransferService;
+    private final List<String> ribs = new ArrayList<>(ACCOUNTS);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("--transfer.batch.chunk-size=" + chunkSize);
+        transactionService = context.getBean(TransactionService.class);
+        batchTransferService = context.getBean(BatchTransferService.class);
+
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        Long clientId = accountRepository.findByRib(OWNER_RIB).orElseThrow().getClientId();
+        Client client = context.getBean(ClientRepository.class).findById(clientId).orElseThrow();
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String rib = String.format("MA640011280001%014d", i);
+            ribs.add(rib);
+            accounts.add(Account.builder()
+                    .rib(rib)
+                    .balance(new BigDecimal("1000000000.00"))
+                    .status(AccountStatus.OPEN)
+                    .createdAt(LocalDateTime.now())
+                    .client(client)
+                    .build());
+        }
+        accountRepository.saveAll(accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void single() {
+        transactionService.executeTransfer(nextTransfer(), OWNER);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BatchTransferResultDTO batch() {
+        return batchTransferService.executeBatch(nextBatch(), OWNER);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OperationsPerInvocation(BATCH)
+    public BatchTransferResultDTO contendedBatch() {
+        return batchTransferService.executeBatch(nextBatch(), OWNER);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public void contendedSingle() {
+        transactionService.executeTransfer(nextTransfer(), OWNER);
+    }
+
+    private List<TransferRequest> nextBatch() {
+        List<TransferRequest> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(nextTransfer());
+        }
+        return batch;
+    }
+
+    // Each account pays the next one in the ring
+    private TransferRequest nextTransfer() {
+        int source = (int) (sequence.getAndIncrement() % ACCOUNTS);
+        return new TransferRequest(ribs.get(source), ribs.get((source + 1) % ACCOUNTS), BigDecimal.ONE, "Benchmark");
+    }
+}
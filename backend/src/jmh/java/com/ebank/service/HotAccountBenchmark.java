@@ -0,0 +1,85 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountStatus;
+import com.ebank.entity.Client;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.ClientRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many concurrent transfers from distinct accounts into one destination account,
+ * credited through its row ({@code hot=false}) or through its balance slots
+ * ({@code hot=true}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(32)
+public class HotAccountBenchmark {
+
+    private static final String DESTINATION_RIB = "MA64001128000098765432109876";
+    private static final int SOURCES = 256;
+
+    @Param({"false", "true"})
+    private boolean hot;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private final List<String> sourceRibs = new ArrayList<>(SOURCES);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext(
+                "--transfer.hot-accounts.ribs=" + (hot ? DESTINATION_RIB : ""));
+        transactionService = context.getBean(TransactionService.class);
+
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        Long clientId = accountRepository.findByRib(DESTINATION_RIB).orElseThrow().getClientId();
+        Client client = context.getBean(ClientRepository.class).findById(clientId).orElseThrow();
+        List<Account> sources = new ArrayList<>(SOURCES);
+        for (int i = 0; i < SOURCES; i++) {
+            String rib = String.format("MA640011280000%014d", i);
+            sourceRibs.add(rib);
+            sources.add(Account.builder()
+                    .rib(rib)
+                    .balance(new BigDecimal("1000000000.00"))
+                    .status(AccountStatus.OPEN)
+                    .createdAt(LocalDateTime.now())
+                    .client(client)
+                    .build());
+        }
+        accountRepository.saveAll(sources);
+
+        // Creates the destination's slots now instead of at the first scheduled fold
+        context.getBean(HotAccountBalances.class).fold();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void creditDestination() {
+        String source = sourceRibs.get((int) (sequence.getAndIncrement() % SOURCES));
+        transactionService.executeTransfer(
+                new TransferRequest(source, DESTINATION_RIB, BigDecimal.ONE, "Benchmark"),
+                // The sources were created for the destination's client
+                "client2");
+    }
+}
@@ -0,0 +1,78 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.entity.Account;
+import com.ebank.entity.Transaction;
+import com.ebank.entity.TransactionType;
+import com.ebank.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction rows inserted per second, with JDBC batching disabled
+ * ({@code jdbcBatchSize = 1}, the behaviour of IDENTITY ids) and enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        account = context.getBean(AccountRepository.class)
+                .findByRib("MA64001128000012345678901234")
+                .orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertTransactions() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Account reference = entityManager.getReference(Account.class, account.getId());
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(Transaction.builder()
+                        .type(TransactionType.CREDIT)
+                        .amount(BigDecimal.ONE)
+                        .label("Benchmark")
+                        .date(now)
+                        .account(reference)
+                        .build());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+}
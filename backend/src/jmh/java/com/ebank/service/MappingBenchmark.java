@@ -0,0 +1,98 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.AccountDTO;
+import com.ebank.dto.ClientDTO;
+import com.ebank.dto.TransactionDTO;
+import com.ebank.entity.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversions of the service layer, on detached in-memory entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private ClientService clientService;
+
+    private Account account;
+    private Transaction transaction;
+    private Client client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        accountService = BenchmarkSupport.target(context.getBean(AccountService.class));
+        transactionService = BenchmarkSupport.target(context.getBean(TransactionService.class));
+        clientService = BenchmarkSupport.target(context.getBean(ClientService.class));
+
+        User user = User.builder()
+                .id(1L)
+                .username("client1")
+                .password("secret")
+                .email("client1@example.com")
+                .role(Role.CLIENT)
+                .enabled(true)
+                .build();
+        client = Client.builder()
+                .id(1L)
+                .firstName("Ahmed")
+                .lastName("Kassimi")
+                .identityNumber("AB123456")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .email("client1@example.com")
+                .address("123 Avenue Mohammed V, Casablanca")
+                .user(user)
+                .build();
+        account = Account.builder()
+                .id(1L)
+                .rib("MA64001128000012345678901234")
+                .balance(new BigDecimal("5000.00"))
+                .status(AccountStatus.OPEN)
+                .createdAt(LocalDateTime.now())
+                .client(client)
+                .build();
+        transaction = Transaction.builder()
+                .id(1L)
+                .type(TransactionType.DEBIT)
+                .amount(new BigDecimal("150.00"))
+                .label("Virement émis - Abonnement internet")
+                .date(LocalDateTime.now())
+                .account(account)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO accountToDTO() {
+        return accountService.mapToDTO(account);
+    }
+
+    @Benchmark
+    public TransactionDTO transactionToDTO() {
+        return transactionService.mapToDTO(transaction);
+    }
+
+    @Benchmark
+    public ClientDTO clientToDTO() {
+        return clientService.mapToDTO(client);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.TransactionDTO;
+import com.ebank.entity.Account;
+import com.ebank.entity.Transaction;
+import com.ebank.entity.TransactionType;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of transaction entities loaded and mapped inside a read-write transaction
+ * (entity snapshots, dirty check and flush at commit) and a read-only one
+ * (no snapshots, manual flush, read-only JDBC connection). The gc profiler
+ * reports the allocation difference as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadOnlyTransactionBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"false", "true"})
+    private boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionService transactionService;
+    private TransactionTemplate transactionTemplate;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionService = BenchmarkSupport.target(context.getBean(TransactionService.class));
+        Account account = context.getBean(AccountRepository.class)
+                .findByRib("MA64001128000012345678901234")
+                .orElseThrow();
+        accountId = account.getId();
+
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(Transaction.builder()
+                    .type(TransactionType.CREDIT)
+                    .amount(BigDecimal.ONE)
+                    .label("Benchmark")
+                    .date(now.minusMinutes(i))
+                    .account(account)
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionDTO> loadPage() {
+        return transactionTemplate.execute(status -> transactionRepository
+                .findByAccountIdOrderByDateDesc(accountId, PageRequest.of(0, ROWS))
+                .map(transactionService::mapToDTO)
+                .getContent());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ebank.service;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.TransferRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end {@link TransactionService#executeTransfer} against embedded H2,
+ * moving a small amount back and forth between the two seeded client accounts,
+ * with one transaction per transfer and with the group-commit sequencer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final String RIB_1 = "MA64001128000012345678901234";
+    private static final String RIB_2 = "MA64001128000098765432109876";
+
+    @Param({"false", "true"})
+    private boolean sequencer;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext("--transfer.sequencer.enabled=" + sequencer);
+        transactionService = context.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void executeTransfer() {
+        transfer();
+    }
+
+    // Concurrent callers are what the sequencer batches together
+    @Benchmark
+    @Threads(32)
+    public void executeTransferConcurrently() {
+        transfer();
+    }
+
+    private void transfer() {
+        boolean forward = (sequence.getAndIncrement() & 1) == 0;
+        TransferRequest request = new TransferRequest(
+                forward ? RIB_1 : RIB_2,
+                forward ? RIB_2 : RIB_1,
+                BigDecimal.ONE,
+                "Benchmark");
+        // Each direction is ordered by the owner of its source account
+        transactionService.executeTransfer(request, forward ? "client1" : "client2");
+    }
+}
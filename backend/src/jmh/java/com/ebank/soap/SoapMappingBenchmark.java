@@ -0,0 +1,48 @@
+package com.ebank.soap;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.AccountDTO;
+import com.ebank.soap.generated.AccountType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SoapMappingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AccountEndpoint accountEndpoint;
+    private AccountDTO account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        accountEndpoint = BenchmarkSupport.target(context.getBean(AccountEndpoint.class));
+        account = AccountDTO.builder()
+                .id(1L)
+                .rib("MA64001128000012345678901234")
+                .balance(new BigDecimal("5000.00"))
+                .status("OPEN")
+                .createdAt(LocalDateTime.now())
+                .clientName("Ahmed Kassimi")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountType mapToAccountType() {
+        return accountEndpoint.mapToAccountType(account);
+    }
+}
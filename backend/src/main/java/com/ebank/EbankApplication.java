@@ -2,8 +2,10 @@ package com.ebank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import net.devh.boot.grpc.server.autoconfigure.GrpcServerSecurityAutoConfiguration;
 
+@EnableScheduling
 @SpringBootApplication(exclude = { GrpcServerSecurityAutoConfiguration.class })
 public class EbankApplication {
     public static void main(String[] args) {
@@ -1,65 +1,127 @@
 package com.ebank.aspect;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ * Times every service method into a {@code ebank.service.method} timer and counts
+ * failures in {@code ebank.service.errors}. HTTP, gRPC and GraphQL endpoints are
+ * timed by their own instrumentation. Argument logging is off by default; when
+ * enabled it is sampled, never formats objects and masks sensitive parameters.
+ */
 @Aspect
 @Component
 @Slf4j
 public class LoggingAspect {
 
-    @Pointcut("within(com.ebank.service..*)")
-    public void serviceLayer() {
-    }
+    private static final Pattern SENSITIVE = Pattern.compile("(?i).*(password|secret|token|credential).*");
 
-    @Pointcut("within(com.ebank.controller..*)")
-    public void controllerLayer() {
-    }
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Method, Map<Class<?>, Counter>> errorCounters = new ConcurrentHashMap<>();
 
-    @Before("serviceLayer()")
-    public void logBefore(JoinPoint joinPoint) {
-        log.info("Entering: {} with arguments: {}",
-                joinPoint.getSignature().toShortString(),
-                Arrays.toString(joinPoint.getArgs()));
-    }
+    private final boolean logArguments;
+    private final double argumentSampleRate;
 
-    @AfterReturning(pointcut = "serviceLayer()", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        log.info("Exiting: {} with result: {}",
-                joinPoint.getSignature().toShortString(),
-                result);
+    public LoggingAspect(MeterRegistry meterRegistry,
+            @Value("${ebank.logging.arguments.enabled:false}") boolean logArguments,
+            @Value("${ebank.logging.arguments.sample-rate:0.01}") double argumentSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.logArguments = logArguments;
+        this.argumentSampleRate = argumentSampleRate;
     }
 
-    @AfterThrowing(pointcut = "serviceLayer()", throwing = "error")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
-        log.error("Exception in: {} with message: {}",
-                joinPoint.getSignature().toShortString(),
-                error.getMessage());
+    @Pointcut("within(com.ebank.service..*) && @within(org.springframework.stereotype.Service)")
+    public void serviceLayer() {
     }
 
-    @Around("controllerLayer()")
-    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
+    @Around("serviceLayer()")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        if (logArguments && ThreadLocalRandom.current().nextDouble() < argumentSampleRate) {
+            logArguments(signature, joinPoint.getArgs());
+        }
 
+        long start = System.nanoTime();
         try {
-            Object result = joinPoint.proceed();
-            long duration = System.currentTimeMillis() - start;
-            log.info("API {} completed in {} ms",
-                    joinPoint.getSignature().toShortString(),
-                    duration);
-            return result;
+            return joinPoint.proceed();
         } catch (Throwable e) {
-            long duration = System.currentTimeMillis() - start;
-            log.error("API {} failed after {} ms with error: {}",
-                    joinPoint.getSignature().toShortString(),
-                    duration,
-                    e.getMessage());
+            errorCounter(method, e.getClass()).increment();
             throw e;
+        } finally {
+            timer(method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Method method) {
+        return timers.computeIfAbsent(method, key -> Timer.builder("ebank.service.method")
+                .description("Service method latency")
+                .tag("class", key.getDeclaringClass().getSimpleName())
+                .tag("method", key.getName())
+                .register(meterRegistry));
+    }
+
+    private Counter errorCounter(Method method, Class<?> exceptionType) {
+        return errorCounters.computeIfAbsent(method, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(exceptionType, type -> Counter.builder("ebank.service.errors")
+                        .description("Service method failures")
+                        .tag("class", method.getDeclaringClass().getSimpleName())
+                        .tag("method", method.getName())
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry));
+    }
+
+    private void logArguments(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            String name = names != null ? names[i] : "arg" + i;
+            if (i > 0) {
+                description.append(", ");
+            }
+            description.append(name).append('=').append(redact(name, args[i]));
+        }
+        log.info("Sampled call: {}({})", signature.toShortString(), description);
+    }
+
+    // Only scalar values are printed: calling toString() on entities or request
+    // objects could trigger lazy loading or print credentials
+    private String redact(String name, Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (SENSITIVE.matcher(name).matches()) {
+            return "***";
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>
+                || value instanceof Temporal) {
+            return value.toString();
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() <= 64 ? "\"" + text + "\"" : "\"" + text.subSequence(0, 64) + "...\"";
+        }
+        if (value instanceof Collection<?> collection) {
+            return value.getClass().getSimpleName() + "[size=" + collection.size() + "]";
         }
+        return value.getClass().getSimpleName();
     }
 }
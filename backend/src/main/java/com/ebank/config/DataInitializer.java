@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -70,45 +71,42 @@ public class DataInitializer implements CommandLineRunner {
                         account = accountRepository.save(account);
 
                         // Create sample transactions
-                        transactionRepository.save(Transaction.builder()
-                                        .type(TransactionType.CREDIT)
-                                        .amount(new BigDecimal("5000.00"))
-                                        .label("Dépôt initial")
-                                        .date(LocalDateTime.now().minusDays(30))
-                                        .account(account)
-                                        .build());
-
-                        transactionRepository.save(Transaction.builder()
-                                        .type(TransactionType.DEBIT)
-                                        .amount(new BigDecimal("500.00"))
-                                        .label("Virement émis - Facture électricité")
-                                        .date(LocalDateTime.now().minusDays(25))
-                                        .account(account)
-                                        .build());
-
-                        transactionRepository.save(Transaction.builder()
-                                        .type(TransactionType.CREDIT)
-                                        .amount(new BigDecimal("2000.00"))
-                                        .label("Virement en votre faveur - Salaire")
-                                        .date(LocalDateTime.now().minusDays(20))
-                                        .account(account)
-                                        .build());
-
-                        transactionRepository.save(Transaction.builder()
-                                        .type(TransactionType.DEBIT)
-                                        .amount(new BigDecimal("150.00"))
-                                        .label("Virement émis - Abonnement internet")
-                                        .date(LocalDateTime.now().minusDays(15))
-                                        .account(account)
-                                        .build());
-
-                        transactionRepository.save(Transaction.builder()
-                                        .type(TransactionType.CREDIT)
-                                        .amount(new BigDecimal("300.00"))
-                                        .label("Virement en votre faveur - Remboursement")
-                                        .date(LocalDateTime.now().minusDays(10))
-                                        .account(account)
-                                        .build());
+                        transactionRepository.saveAll(List.of(
+                                        Transaction.builder()
+                                                .type(TransactionType.CREDIT)
+                                                .amount(new BigDecimal("5000.00"))
+                                                .label("Dépôt initial")
+                                                .date(LocalDateTime.now().minusDays(30))
+                                                .account(account)
+                                                .build(),
+                                        Transaction.builder()
+                                                .type(TransactionType.DEBIT)
+                                                .amount(new BigDecimal("500.00"))
+                                                .label("Virement émis - Facture électricité")
+                                                .date(LocalDateTime.now().minusDays(25))
+                                                .account(account)
+                                                .build(),
+                                        Transaction.builder()
+                                                .type(TransactionType.CREDIT)
+                                                .amount(new BigDecimal("2000.00"))
+                                                .label("Virement en votre faveur - Salaire")
+                                                .date(LocalDateTime.now().minusDays(20))
+                                                .account(account)
+                                                .build(),
+                                        Transaction.builder()
+                                                .type(TransactionType.DEBIT)
+                                                .amount(new BigDecimal("150.00"))
+                                                .label("Virement émis - Abonnement internet")
+                                                .date(LocalDateTime.now().minusDays(15))
+                                                .account(account)
+                                                .build(),
+                                        Transaction.builder()
+                                                .type(TransactionType.CREDIT)
+                                                .amount(new BigDecimal("300.00"))
+                                                .label("Virement en votre faveur - Remboursement")
+                                                .date(LocalDateTime.now().minusDays(10))
+                                                .account(account)
+                                                .build()));
 
                         log.info("Created CLIENT user: client1 / client123 with account RIB: {}", account.getRib());
                 }
@@ -0,0 +1,42 @@
+package com.ebank.config;
+
+import com.ebank.graphql.CachingPreparsedDocumentProvider;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphQLConfig {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${graphql.max-query-depth:8}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${graphql.max-query-complexity:1000}") int maxComplexity) {
+        // Paged fields cost their selection once per requested row
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            if (environment.getFieldDefinition().getArgument("first") == null) {
+                return 1 + childComplexity;
+            }
+            Object first = environment.getArguments().get("first");
+            int rows = first instanceof Integer value ? value : DEFAULT_PAGE_SIZE;
+            return 1 + childComplexity * Math.max(rows, 1);
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(CachingPreparsedDocumentProvider provider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(provider));
+    }
+}
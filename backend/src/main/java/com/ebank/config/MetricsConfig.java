@@ -0,0 +1,186 @@
+package com.ebank.config;
+
+import com.ebank.datasource.ReplicaLagMonitor;
+import com.ebank.graphql.CachingPreparsedDocumentProvider;
+import com.ebank.ledger.TransferLedger;
+import com.ebank.security.JwtTokenProvider;
+import com.ebank.service.AccountLockManager;
+import com.ebank.service.DashboardCache;
+import com.ebank.service.HotAccountBalances;
+import com.ebank.service.OptimisticRetryExecutor;
+import com.ebank.service.TransferSequencer;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the statistics kept by the in-process caches, Hibernate, replica monitor, locks
+ * and retry executor.
+ * JVM, HTTP, connection pool, gRPC and GraphQL metrics come from Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder dashboardCacheMetrics(DashboardCache dashboardCache) {
+        return registry -> bindCache(registry, "dashboard", dashboardCache, DashboardCache::getStats, DashboardCache::getSize);
+    }
+
+    @Bean
+    public MeterBinder jwtMetrics(JwtTokenProvider jwtTokenProvider) {
+        return registry -> {
+            bindCache(registry, "jwt", jwtTokenProvider, JwtTokenProvider::getCacheStats,
+                    JwtTokenProvider::getCacheSize);
+            FunctionCounter.builder("ebank.jwt.verifications", jwtTokenProvider,
+                            JwtTokenProvider::getVerificationCount)
+                    .description("JWT signature verifications (cache misses)")
+                    .register(registry);
+            FunctionCounter.builder("ebank.jwt.verification.time", jwtTokenProvider,
+                            provider -> provider.getVerificationNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder graphQlDocumentCacheMetrics(CachingPreparsedDocumentProvider provider) {
+        return registry -> {
+            bindCache(registry, "graphql.documents", provider,
+                    CachingPreparsedDocumentProvider::getDocumentStats, CachingPreparsedDocumentProvider::getSize);
+            bindCache(registry, "graphql.persisted", provider,
+                    CachingPreparsedDocumentProvider::getPersistedQueryStats,
+                    CachingPreparsedDocumentProvider::getPersistedQuerySize);
+        };
+    }
+
+    // Second-level, natural-id and query cache hits and misses per region
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory",
+                Tags.empty());
+    }
+
+    @Bean
+    public MeterBinder transferSequencerMetrics(TransferSequencer sequencer) {
+        return registry -> {
+            Gauge.builder("ebank.transfer.sequencer.queue.depth", sequencer, TransferSequencer::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("ebank.transfer.sequencer.queue.capacity", sequencer, TransferSequencer::getCapacity)
+                    .register(registry);
+            counter(registry, "ebank.transfer.sequencer.batches", sequencer, TransferSequencer::getBatches);
+            counter(registry, "ebank.transfer.sequencer.transfers", sequencer,
+                    TransferSequencer::getSequencedTransfers);
+            counter(registry, "ebank.transfer.sequencer.rejected", sequencer, TransferSequencer::getRejected);
+        };
+    }
+
+    @Bean
+    public MeterBinder hotAccountMetrics(HotAccountBalances hotAccountBalances) {
+        return registry -> {
+            Gauge.builder("ebank.transfer.hot.accounts", hotAccountBalances, HotAccountBalances::getHotAccountCount)
+                    .register(registry);
+            counter(registry, "ebank.transfer.hot.slot.credits", hotAccountBalances,
+                    HotAccountBalances::getSlotCredits);
+            counter(registry, "ebank.transfer.hot.folds", hotAccountBalances, HotAccountBalances::getFolds);
+        };
+    }
+
+    @Bean
+    public MeterBinder ledgerMetrics(TransferLedger transferLedger) {
+        return registry -> {
+            if (!transferLedger.isEnabled()) {
+                return;
+            }
+            Gauge.builder("ebank.ledger.sequence", transferLedger, TransferLedger::getLastSequence)
+                    .register(registry);
+            Gauge.builder("ebank.ledger.projected.sequence", transferLedger, TransferLedger::getProjectedSequence)
+                    .register(registry);
+            Gauge.builder("ebank.ledger.projection.lag", transferLedger, TransferLedger::getProjectionLag)
+                    .register(registry);
+            counter(registry, "ebank.ledger.transfers", transferLedger, TransferLedger::getAppended);
+            counter(registry, "ebank.ledger.projection.batches", transferLedger,
+                    TransferLedger::getProjectionBatches);
+        };
+    }
+
+    // Only present when read replicas are configured
+    @Bean
+    public MeterBinder replicaLagMetrics(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        return registry -> replicaLagMonitor.ifAvailable(monitor -> {
+            for (String replica : monitor.getReplicaKeys()) {
+                Gauge.builder("ebank.datasource.replica.lag", monitor, m -> m.getLagSeconds(replica))
+                        .description("Replication lag, -1 when the replica is unreachable")
+                        .baseUnit("seconds")
+                        .tag("replica", replica)
+                        .register(registry);
+            }
+            Gauge.builder("ebank.datasource.replicas.in.sync", monitor, ReplicaLagMonitor::getInSyncCount)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder accountLockMetrics(AccountLockManager lockManager) {
+        return registry -> {
+            counter(registry, "ebank.transfer.lock.acquisitions", lockManager, AccountLockManager::getAcquisitions);
+            counter(registry, "ebank.transfer.lock.contended", lockManager,
+                    AccountLockManager::getContendedAcquisitions);
+            FunctionCounter.builder("ebank.transfer.lock.wait", lockManager,
+                            manager -> manager.getTotalWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("ebank.transfer.lock.wait.max", lockManager,
+                            manager -> manager.getMaxWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("ebank.transfer.lock.queued", lockManager, AccountLockManager::getQueuedThreads)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder optimisticRetryMetrics(OptimisticRetryExecutor retryExecutor) {
+        return registry -> {
+            counter(registry, "ebank.transfer.conflicts", retryExecutor, OptimisticRetryExecutor::getTotalConflicts);
+            counter(registry, "ebank.transfer.retries", retryExecutor, OptimisticRetryExecutor::getTotalRetries);
+            counter(registry, "ebank.transfer.retries.exhausted", retryExecutor,
+                    OptimisticRetryExecutor::getTotalExhausted);
+        };
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, source, value).register(registry);
+    }
+
+    // Meters keep only a weak reference to their source, so the bean itself is registered
+    private static <T> void bindCache(MeterRegistry registry, String cache, T source,
+            Function<T, CacheStats> stats, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("ebank.cache.gets", source, s -> stats.apply(s).hitCount())
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("ebank.cache.gets", source, s -> stats.apply(s).missCount())
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("ebank.cache.evictions", source, s -> stats.apply(s).evictionCount())
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("ebank.cache.size", source, size)
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
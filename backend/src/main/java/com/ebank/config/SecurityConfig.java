@@ -56,6 +56,7 @@ public class SecurityConfig {
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/ws/**", "/ws/*.wsdl").permitAll()
                         .requestMatchers("/graphql", "/graphiql").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .requestMatchers("/api/clients/**").hasRole("AGENT_GUICHET")
                         .requestMatchers("/api/accounts/create").hasRole("AGENT_GUICHET")
                         .requestMatchers("/api/dashboard/**").hasRole("CLIENT")
@@ -2,12 +2,26 @@ package com.ebank.controller;
 
 import com.ebank.dto.*;
 import com.ebank.service.AccountService;
+import com.ebank.service.OptimisticRetryExecutor;
+import com.ebank.service.StatementExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -15,6 +29,8 @@ import org.springframework.web.bind.annotation.*;
 public class AccountController {
 
     private final AccountService accountService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final StatementExportService statementExportService;
 
     @PostMapping("/create")
     @PreAuthorize("hasRole('AGENT_GUICHET')")
@@ -35,4 +51,59 @@ public class AccountController {
         AccountDTO account = accountService.getAccountByRib(rib);
         return ResponseEntity.ok(ApiResponse.success(account));
     }
+
+    @PostMapping("/lookup/ribs")
+    public ResponseEntity<ApiResponse<List<AccountLookupResultDTO>>> getAccountsByRibs(
+            @Valid @RequestBody AccountsByRibsRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.getAccountsByRibs(request.getRibs())));
+    }
+
+    @PostMapping("/lookup/ids")
+    public ResponseEntity<ApiResponse<List<AccountLookupResultDTO>>> getAccountsByIds(
+            @Valid @RequestBody AccountsByIdsRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.getAccountsByIds(request.getIds())));
+    }
+
+    @GetMapping("/contention")
+    @PreAuthorize("hasRole('AGENT_GUICHET')")
+    public ResponseEntity<ApiResponse<List<AccountContentionDTO>>> getHotAccounts(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(optimisticRetryExecutor.getHotAccounts(limit)));
+    }
+
+    @GetMapping("/{accountId}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        StatementExportService.Format exportFormat = StatementExportService.Format.of(format);
+        statementExportService.checkAccountExists(accountId);
+        checkStatementAccess(accountId, userDetails);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 16 * 1024) : outputStream;
+            statementExportService.export(accountId, from, to, exportFormat, target);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        String fileName = "statement-" + accountId + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Agents export any account, clients only their own
+    private void checkStatementAccess(Long accountId, UserDetails userDetails) {
+        boolean agent = userDetails.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_AGENT_GUICHET".equals(authority.getAuthority()));
+        if (!agent && !accountService.isOwnedBy(accountId, userDetails.getUsername())) {
+            throw new AccessDeniedException("Accès refusé au relevé de ce compte");
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.ebank.controller;
 
 import com.ebank.dto.*;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.service.AccountService;
 import com.ebank.service.DashboardService;
 import com.ebank.service.TransactionService;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final AccountService accountService;
     private final TransactionService transactionService;
 
     @GetMapping
@@ -32,8 +35,28 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<Page<TransactionDTO>>> getTransactions(
             @PathVariable Long accountId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        checkOwner(accountId, userDetails);
         Page<TransactionDTO> transactions = transactionService.getTransactionsByAccountId(accountId, page, size);
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
+
+    @GetMapping("/accounts/{accountId}/transactions/cursor")
+    public ResponseEntity<ApiResponse<TransactionPageDTO>> getTransactionsAfterCursor(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        checkOwner(accountId, userDetails);
+        TransactionPageDTO transactions = transactionService.getTransactionsAfterCursor(accountId, after, size);
+        return ResponseEntity.ok(ApiResponse.success(transactions));
+    }
+
+    // Another client's account is reported as not found rather than revealed
+    private void checkOwner(Long accountId, UserDetails userDetails) {
+        if (!accountService.isOwnedBy(accountId, userDetails.getUsername())) {
+            throw new ResourceNotFoundException("Compte non trouvé");
+        }
+    }
 }
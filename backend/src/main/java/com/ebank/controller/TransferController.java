@@ -1,14 +1,22 @@
 package com.ebank.controller;
 
 import com.ebank.dto.*;
+import com.ebank.exception.BusinessException;
+import com.ebank.service.BatchTransferService;
 import com.ebank.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/transfers")
@@ -17,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class TransferController {
 
     private final TransactionService transactionService;
+    private final BatchTransferService batchTransferService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<Void>> executeTransfer(
@@ -25,4 +34,27 @@ public class TransferController {
         transactionService.executeTransfer(request, userDetails.getUsername());
         return ResponseEntity.ok(ApiResponse.success("Virement effectué avec succès", null));
     }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<BatchTransferResultDTO>> executeBatchTransfer(
+            @Valid @RequestBody BatchTransferRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        BatchTransferResultDTO result = batchTransferService.executeBatch(
+                request.getTransfers(), userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Lot de virements traité", result));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<BatchTransferResultDTO>> executeBatchTransferFile(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        List<TransferRequest> transfers;
+        try (InputStream inputStream = file.getInputStream()) {
+            transfers = batchTransferService.parseTransferFile(inputStream);
+        } catch (IOException e) {
+            throw new BusinessException("Impossible de lire le fichier de virements");
+        }
+        BatchTransferResultDTO result = batchTransferService.executeBatch(transfers, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Lot de virements traité", result));
+    }
 }
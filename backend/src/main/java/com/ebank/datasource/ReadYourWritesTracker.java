@@ -0,0 +1,96 @@
+package com.ebank.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers users who changed data recently, so that their reads go to the primary
+ * instead of a replica that may not have applied the change yet. The window is the
+ * maximum replica lag plus one heartbeat interval: after it, every replica still
+ * serving reads has the change.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Boolean> primaryRequested = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    @Getter
+    private final long windowMs;
+
+    public ReadYourWritesTracker(@Value("${ebank.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            @Value("${ebank.datasource.replica.heartbeat-interval-ms:1000}") long heartbeatIntervalMs,
+            @Value("${ebank.datasource.replica.tracked-users:100000}") long maxTrackedUsers) {
+        this.windowMs = maxLagMs + heartbeatIntervalMs;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+    }
+
+    /**
+     * Starts the window when the current transaction commits, or right away when
+     * there is no transaction.
+     */
+    public void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(username, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(username, Boolean.TRUE);
+            }
+        });
+    }
+
+    public void recordCurrentUserWrite() {
+        recordWrite(currentUsername());
+    }
+
+    public boolean hasRecentWrite(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    public boolean isPrimaryRequired() {
+        if (Boolean.TRUE.equals(primaryRequested.get())) {
+            return true;
+        }
+        return hasRecentWrite(currentUsername());
+    }
+
+    /**
+     * Runs the reads of {@code action} on the primary when {@code required} is true.
+     */
+    public <T> T readFromPrimaryIf(boolean required, Supplier<T> action) {
+        if (!required || Boolean.TRUE.equals(primaryRequested.get())) {
+            return action.get();
+        }
+        primaryRequested.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            primaryRequested.remove();
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ebank.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures replica lag with a heartbeat row: the primary stamps it with its own
+ * clock, and a replica's lag is how far its copy of the stamp is behind. Replicas
+ * that lag more than the limit, or cannot be reached, receive no reads until they
+ * catch up. No replica is used before the first measurement.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String WRITE_HEARTBEAT =
+            "UPDATE replication_heartbeat SET beat_at = CURRENT_TIMESTAMP(3) WHERE id = 1";
+    private static final String READ_HEARTBEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+    private static final long UNREACHABLE = -1;
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final long maxLagMs;
+
+    private final Map<String, Long> lagMs = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> inSync = List.of();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, ? extends DataSource> replicas, long maxLagMs) {
+        this.primary = new JdbcTemplate(primary);
+        replicas.forEach((key, dataSource) -> this.replicas.put(key, new JdbcTemplate(dataSource)));
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${ebank.datasource.replica.heartbeat-interval-ms:1000}")
+    public void check() {
+        Timestamp beat;
+        try {
+            primary.update(WRITE_HEARTBEAT);
+            beat = primary.queryForObject(READ_HEARTBEAT, Timestamp.class);
+        } catch (DataAccessException e) {
+            // Without a reference point no replica can be trusted
+            log.warn("Replication heartbeat failed on the primary: {}", e.getMessage());
+            inSync = List.of();
+            return;
+        }
+
+        List<String> healthy = new ArrayList<>(replicas.size());
+        replicas.forEach((key, replica) -> {
+            long lag;
+            try {
+                Timestamp applied = replica.queryForObject(READ_HEARTBEAT, Timestamp.class);
+                lag = Math.max(0, beat.getTime() - applied.getTime());
+            } catch (DataAccessException e) {
+                log.warn("Replica {} is unreachable: {}", key, e.getMessage());
+                lag = UNREACHABLE;
+            }
+            Long previous = lagMs.put(key, lag);
+            boolean healthyNow = lag != UNREACHABLE && lag <= maxLagMs;
+            if (healthyNow) {
+                healthy.add(key);
+            }
+            if (previous != null && healthyNow != (previous != UNREACHABLE && previous <= maxLagMs)) {
+                log.info("Replica {} {} reads (lag {} ms)", key, healthyNow ? "is back to serving" : "stops serving", lag);
+            }
+        });
+        inSync = List.copyOf(healthy);
+    }
+
+    /**
+     * Next in-sync replica in round-robin order, or {@code null} when none is in sync.
+     */
+    public String nextReplica() {
+        List<String> candidates = inSync;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    public Set<String> getReplicaKeys() {
+        return replicas.keySet();
+    }
+
+    /**
+     * Last measured lag in seconds, or -1 when the replica could not be reached.
+     */
+    public double getLagSeconds(String key) {
+        long lag = lagMs.getOrDefault(key, UNREACHABLE);
+        return lag == UNREACHABLE ? -1 : lag / 1000.0;
+    }
+
+    public int getInSyncCount() {
+        return inSync.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ebank.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to an in-sync replica and everything else to the
+ * primary. Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the
+ * read-only flag of a transaction is only known once it has begun, after the
+ * transaction manager asked for its connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        String replica = lagMonitor.nextReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+}
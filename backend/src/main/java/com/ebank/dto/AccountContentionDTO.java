@@ -0,0 +1,19 @@
+package com.ebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountContentionDTO {
+    private String rib;
+    private long attempts;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+    private double conflictRate;
+}
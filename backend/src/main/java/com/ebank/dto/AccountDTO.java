@@ -1,5 +1,6 @@
 package com.ebank.dto;
 
+import com.ebank.entity.AccountStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +19,11 @@ public class AccountDTO {
     private String status;
     private LocalDateTime createdAt;
     private String clientName;
+    private Long clientId;
+
+    // Used by JPQL constructor expressions to read accounts without loading entities
+    public AccountDTO(Long id, String rib, BigDecimal balance, AccountStatus status, LocalDateTime createdAt,
+            Long clientId, String clientFirstName, String clientLastName) {
+        this(id, rib, balance, status.name(), createdAt, clientFirstName + " " + clientLastName, clientId);
+    }
 }
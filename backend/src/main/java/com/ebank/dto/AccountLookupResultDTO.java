@@ -0,0 +1,16 @@
+package com.ebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountLookupResultDTO {
+    private String key;
+    private boolean found;
+    private AccountDTO account;
+}
@@ -0,0 +1,15 @@
+package com.ebank.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountsByIdsRequest {
+    @NotEmpty(message = "At least one account ID is required")
+    private List<Long> ids;
+}
@@ -0,0 +1,15 @@
+package com.ebank.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountsByRibsRequest {
+    @NotEmpty(message = "At least one RIB is required")
+    private List<String> ribs;
+}
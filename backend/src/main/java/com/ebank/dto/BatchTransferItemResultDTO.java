@@ -0,0 +1,20 @@
+package com.ebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferItemResultDTO {
+    private int index;
+    private String sourceRib;
+    private String destinationRib;
+    private BigDecimal amount;
+    private boolean success;
+    private String message;
+}
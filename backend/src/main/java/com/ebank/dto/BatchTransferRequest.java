@@ -0,0 +1,16 @@
+package com.ebank.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequest {
+    // Items are not bean-validated: the batch service reports each invalid one in its result
+    @NotEmpty(message = "At least one transfer is required")
+    private List<TransferRequest> transfers;
+}
@@ -0,0 +1,18 @@
+package com.ebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferResultDTO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchTransferItemResultDTO> results;
+}
@@ -1,5 +1,6 @@
 package com.ebank.dto;
 
+import com.ebank.entity.TransactionType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,4 +18,9 @@ public class TransactionDTO {
     private BigDecimal amount;
     private String label;
     private LocalDateTime date;
+
+    // Used by JPQL constructor expressions to read transactions without loading entities
+    public TransactionDTO(Long id, TransactionType type, BigDecimal amount, String label, LocalDateTime date) {
+        this(id, type.name(), amount, label, date);
+    }
 }
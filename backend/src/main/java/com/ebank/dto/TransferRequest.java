@@ -18,6 +18,7 @@ public class TransferRequest {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 13, fraction = 2, message = "Amount must have at most 13 digits and 2 decimals")
     private BigDecimal amount;
 
     @NotBlank(message = "Motif is required")
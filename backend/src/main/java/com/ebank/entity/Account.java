@@ -2,6 +2,7 @@ package com.ebank.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,7 +16,8 @@ import java.util.List;
 public class Account {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -23,6 +25,10 @@ public class Account {
     
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
+
+    // Credits not yet folded into the balance (hot accounts only), read with the row
+    @Formula("(SELECT COALESCE(SUM(s.amount), 0) FROM account_balance_slots s WHERE s.account_id = id)")
+    private BigDecimal slotBalance;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -30,12 +36,24 @@ public class Account {
     
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
+
+    // Read-only copy of the foreign key, available without initializing the client proxy
+    @Column(name = "client_id", insertable = false, updatable = false)
+    private Long clientId;
     
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("date DESC")
     private List<Transaction> transactions;
+
+    public BigDecimal getAvailableBalance() {
+        return slotBalance == null ? balance : balance.add(slotBalance);
+    }
 }
@@ -1,21 +1,53 @@
 package com.ebank.graphql;
 
 import com.ebank.dto.AccountDTO;
+import com.ebank.dto.AccountLookupResultDTO;
+import com.ebank.dto.ClientDTO;
 import com.ebank.dto.CreateAccountRequest;
+import com.ebank.dto.TransactionPageDTO;
 import com.ebank.service.AccountService;
-import lombok.RequiredArgsConstructor;
+import com.ebank.service.ClientService;
+import com.ebank.service.TransactionService;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
-@RequiredArgsConstructor
 public class AccountGraphQLController {
 
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AccountService accountService;
+    private final ClientService clientService;
+    private final TransactionService transactionService;
+    private final TransactionAccess transactionAccess;
+
+    public AccountGraphQLController(AccountService accountService, ClientService clientService,
+            TransactionService transactionService, TransactionAccess transactionAccess,
+            BatchLoaderRegistry batchLoaderRegistry) {
+        this.accountService = accountService;
+        this.clientService = clientService;
+        this.transactionService = transactionService;
+        this.transactionAccess = transactionAccess;
+        batchLoaderRegistry.forTypePair(TransactionPageKey.class, TransactionConnection.class)
+                .registerMappedBatchLoader((keys, environment) -> Mono.fromCallable(() -> loadTransactions(keys)));
+    }
 
     @QueryMapping
     public AccountDTO getAccountById(@Argument Long id) {
@@ -32,6 +64,16 @@ public class AccountGraphQLController {
         return accountService.getAccountsByClientId(clientId);
     }
 
+    @QueryMapping
+    public List<AccountLookupResultDTO> getAccountsByRibs(@Argument List<String> ribs) {
+        return accountService.getAccountsByRibs(ribs);
+    }
+
+    @QueryMapping
+    public List<AccountLookupResultDTO> getAccountsByIds(@Argument List<Long> ids) {
+        return accountService.getAccountsByIds(ids);
+    }
+
     @MutationMapping
     public AccountDTO createAccount(@Argument CreateAccountInput input) {
         CreateAccountRequest request = new CreateAccountRequest();
@@ -39,4 +81,57 @@ public class AccountGraphQLController {
         request.setIdentityNumber(input.getIdentityNumber());
         return accountService.createAccount(request);
     }
+
+    // /graphql is open, so owner details are only returned to agents and to the owner itself
+    @BatchMapping(typeName = "Account")
+    public Map<AccountDTO, ClientDTO> client(List<AccountDTO> accounts) {
+        Set<Long> clientIds = accounts.stream()
+                .map(AccountDTO::getClientId)
+                .distinct()
+                .filter(transactionAccess::canReadClient)
+                .collect(Collectors.toSet());
+        if (clientIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ClientDTO> clients = clientService.getClientsByIds(clientIds).stream()
+                .collect(Collectors.toMap(ClientDTO::getId, Function.identity()));
+
+        Map<AccountDTO, ClientDTO> result = new HashMap<>();
+        accounts.stream()
+                .filter(account -> clients.containsKey(account.getClientId()))
+                .forEach(account -> result.put(account, clients.get(account.getClientId())));
+        return result;
+    }
+
+    @SchemaMapping(typeName = "Account", field = "transactions")
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT_GUICHET')")
+    public CompletableFuture<TransactionConnection> transactions(AccountDTO account,
+            @Argument Integer first,
+            @Argument String after,
+            DataLoader<TransactionPageKey, TransactionConnection> loader) {
+        transactionAccess.checkOwner(account.getClientId());
+        int size = Math.min(Math.max(first != null ? first : DEFAULT_PAGE_SIZE, 1), MAX_PAGE_SIZE);
+        return loader.load(new TransactionPageKey(account.getId(), size, after));
+    }
+
+    private Map<TransactionPageKey, TransactionConnection> loadTransactions(Set<TransactionPageKey> keys) {
+        Map<TransactionPageKey, TransactionConnection> result = new HashMap<>();
+
+        // First pages are the common case: one windowed query per distinct page size
+        Map<Integer, List<TransactionPageKey>> firstPages = keys.stream()
+                .filter(key -> key.after() == null || key.after().isEmpty())
+                .collect(Collectors.groupingBy(TransactionPageKey::first));
+        firstPages.forEach((size, pageKeys) -> {
+            Set<Long> accountIds = pageKeys.stream().map(TransactionPageKey::accountId).collect(Collectors.toSet());
+            Map<Long, TransactionPageDTO> pages = transactionService.getFirstPages(accountIds, size);
+            pageKeys.forEach(key -> result.put(key, TransactionConnection.from(pages.get(key.accountId()))));
+        });
+
+        // Each cursor has its own keyset position and is read with its own indexed range scan
+        keys.stream()
+                .filter(key -> key.after() != null && !key.after().isEmpty())
+                .forEach(key -> result.put(key, TransactionConnection.from(
+                        transactionService.getTransactionsAfterCursor(key.accountId(), key.after(), key.first()))));
+        return result;
+    }
 }
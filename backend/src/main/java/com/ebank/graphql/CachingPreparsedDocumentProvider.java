@@ -0,0 +1,81 @@
+package com.ebank.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps parsed and validated documents so repeated queries skip parsing and
+ * validation. Requests carrying an Apollo {@code persistedQuery} extension are
+ * looked up by their SHA-256 hash, and the query text only has to be sent once.
+ */
+@Component
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final Cache<Object, PreparsedDocumentEntry> persistedDocuments;
+    private final ApolloPersistedQuerySupport persistedQuerySupport;
+
+    public CachingPreparsedDocumentProvider(@Value("${graphql.document-cache.max-size:500}") long maxSize) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.persistedDocuments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport(new PersistedQueryCache() {
+            // Still the abstract method in graphql-java 21; the async variant delegates to it
+            @Override
+            @SuppressWarnings("deprecation")
+            public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId,
+                    ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss) {
+                // onCacheMiss rejects unknown hashes sent without their query text, and
+                // hashes that do not match the text; neither outcome is cached
+                return persistedDocuments.get(persistedQueryId,
+                        id -> onCacheMiss.apply(executionInput.getQuery()));
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+            Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        if (extensions != null && extensions.containsKey(PERSISTED_QUERY_EXTENSION)) {
+            return persistedQuerySupport.getDocument(executionInput, parseAndValidateFunction);
+        }
+        return documents.get(executionInput.getQuery(), query -> parseAndValidateFunction.apply(executionInput));
+    }
+
+    public CacheStats getDocumentStats() {
+        return documents.stats();
+    }
+
+    public CacheStats getPersistedQueryStats() {
+        return persistedDocuments.stats();
+    }
+
+    public long getSize() {
+        return documents.estimatedSize();
+    }
+
+    public long getPersistedQuerySize() {
+        return persistedDocuments.estimatedSize();
+    }
+}
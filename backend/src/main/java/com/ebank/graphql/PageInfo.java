@@ -0,0 +1,13 @@
+package com.ebank.graphql;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageInfo {
+    private boolean hasNextPage;
+    private String endCursor;
+}
@@ -0,0 +1,63 @@
+package com.ebank.graphql;
+
+import com.ebank.service.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transaction history and owner details over GraphQL: agents read any account,
+ * clients only the accounts of their own client.
+ */
+@Component
+@RequiredArgsConstructor
+class TransactionAccess {
+
+    private final AccountService accountService;
+
+    void checkAccount(Long accountId) {
+        if (!isAgent() && !accountService.isOwnedBy(accountId, username())) {
+            throw accessDenied();
+        }
+    }
+
+    void checkOwner(Long clientId) {
+        if (!isAgent() && !accountService.getClientIdByUsername(username()).equals(clientId)) {
+            throw accessDenied();
+        }
+    }
+
+    /**
+     * Whether the caller may read the owner details of the accounts of this client;
+     * anonymous callers never may.
+     */
+    boolean canReadClient(Long clientId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return false;
+        }
+        if (isAgent()) {
+            return true;
+        }
+        boolean client = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_CLIENT".equals(authority.getAuthority()));
+        return client && accountService.getClientIdByUsername(authentication.getName()).equals(clientId);
+    }
+
+    private static String username() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private static AccessDeniedException accessDenied() {
+        return new AccessDeniedException("Accès refusé à l'historique de ce compte");
+    }
+
+    private static boolean isAgent() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_AGENT_GUICHET".equals(authority.getAuthority()));
+    }
+}
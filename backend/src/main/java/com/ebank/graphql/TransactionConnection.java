@@ -0,0 +1,25 @@
+package com.ebank.graphql;
+
+import com.ebank.dto.TransactionPageDTO;
+import com.ebank.service.TransactionCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionConnection {
+    private List<TransactionEdge> edges;
+    private PageInfo pageInfo;
+
+    public static TransactionConnection from(TransactionPageDTO page) {
+        List<TransactionEdge> edges = page.getItems().stream()
+                .map(t -> new TransactionEdge(TransactionCursor.encode(t.getDate(), t.getId()), t))
+                .collect(Collectors.toList());
+        return new TransactionConnection(edges, new PageInfo(page.isHasMore(), page.getNextCursor()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.ebank.graphql;
+
+import com.ebank.dto.TransactionDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionEdge {
+    private String cursor;
+    private TransactionDTO node;
+}
@@ -0,0 +1,28 @@
+package com.ebank.graphql;
+
+import com.ebank.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+@Controller
+@RequiredArgsConstructor
+public class TransactionGraphQLController {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final TransactionService transactionService;
+    private final TransactionAccess transactionAccess;
+
+    @QueryMapping
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT_GUICHET')")
+    public TransactionConnection getTransactions(@Argument Long accountId,
+            @Argument Integer first,
+            @Argument String after) {
+        transactionAccess.checkAccount(accountId);
+        int size = first != null ? first : DEFAULT_PAGE_SIZE;
+        return TransactionConnection.from(transactionService.getTransactionsAfterCursor(accountId, after, size));
+    }
+}
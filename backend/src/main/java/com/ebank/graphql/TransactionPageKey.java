@@ -0,0 +1,8 @@
+package com.ebank.graphql;
+
+/**
+ * DataLoader key for one {@code Account.transactions} field: the account and the
+ * page requested on it.
+ */
+public record TransactionPageKey(Long accountId, int first, String after) {
+}
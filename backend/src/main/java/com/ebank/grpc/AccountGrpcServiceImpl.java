@@ -1,24 +1,44 @@
 package com.ebank.grpc;
 
 import com.ebank.dto.AccountDTO;
+import com.ebank.dto.AccountLookupResultDTO;
 import com.ebank.dto.CreateAccountRequest;
+import com.ebank.dto.TransactionDTO;
+import com.ebank.dto.TransactionPageDTO;
+import com.ebank.exception.BusinessException;
 import com.ebank.exception.ResourceNotFoundException;
 import com.ebank.grpc.generated.*;
 import com.ebank.service.AccountService;
+import com.ebank.service.TransactionCursor;
+import com.ebank.service.TransactionService;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 @GrpcService
 @RequiredArgsConstructor
+@Slf4j
 public class AccountGrpcServiceImpl extends AccountGrpcServiceGrpc.AccountGrpcServiceImplBase {
 
     private final AccountService accountService;
+    private final TransactionService transactionService;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
 
+    // Deprecated text copies of balance_money and created_at_time, for clients not migrated yet
+    @Value("${ebank.grpc.legacy-string-fields:true}")
+    private boolean legacyStringFields;
+
     @Override
     public void getAccountByRib(GetAccountByRibRequest request, StreamObserver<AccountResponse> responseObserver) {
         try {
@@ -57,6 +77,44 @@ public class AccountGrpcServiceImpl extends AccountGrpcServiceGrpc.AccountGrpcSe
         }
     }
 
+    @Override
+    public void getAccountsByRibs(GetAccountsByRibsRequest request,
+            StreamObserver<AccountLookupResponse> responseObserver) {
+        try {
+            List<AccountLookupResultDTO> results = accountService.getAccountsByRibs(request.getRibsList());
+
+            responseObserver.onNext(mapToLookupResponse(results));
+            responseObserver.onCompleted();
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Internal server error: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void getAccountsByIds(GetAccountsByIdsRequest request,
+            StreamObserver<AccountLookupResponse> responseObserver) {
+        try {
+            List<AccountLookupResultDTO> results = accountService.getAccountsByIds(request.getIdsList());
+
+            responseObserver.onNext(mapToLookupResponse(results));
+            responseObserver.onCompleted();
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Internal server error: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
     @Override
     public void createAccount(CreateAccountGrpcRequest request, StreamObserver<AccountResponse> responseObserver) {
         try {
@@ -76,14 +134,156 @@ public class AccountGrpcServiceImpl extends AccountGrpcServiceGrpc.AccountGrpcSe
         }
     }
 
-    private AccountResponse mapToAccountResponse(AccountDTO dto) {
-        return AccountResponse.newBuilder()
+    @Override
+    public void streamTransactions(StreamTransactionsRequest request,
+            StreamObserver<TransactionResponse> responseObserver) {
+        try {
+            accountService.getAccountById(request.getAccountId());
+            if (!canReadHistory(request.getAccountId())) {
+                responseObserver.onError(Status.PERMISSION_DENIED
+                        .withDescription("Accès refusé à l'historique de ce compte")
+                        .asRuntimeException());
+                return;
+            }
+            if (!request.getAfterCursor().isEmpty()) {
+                TransactionCursor.decode(request.getAfterCursor());
+            }
+        } catch (ResourceNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<TransactionResponse> serverObserver =
+                (ServerCallStreamObserver<TransactionResponse>) responseObserver;
+        TransactionStream stream = new TransactionStream(request, serverObserver);
+        serverObserver.setOnCancelHandler(stream::cancel);
+        // Invoked whenever the transport can take more messages, including once the call starts
+        serverObserver.setOnReadyHandler(stream::drain);
+    }
+
+    /**
+     * Caller set by {@link JwtServerInterceptor}: agents read any account, clients only
+     * the accounts of their own client, as on the REST history endpoints.
+     */
+    private boolean canReadHistory(long accountId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return false;
+        }
+        boolean agent = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_AGENT_GUICHET".equals(authority.getAuthority()));
+        return agent || accountService.isOwnedBy(accountId, authentication.getName());
+    }
+
+    /**
+     * Feeds one call from keyset pages. At most one page is held in memory, and a
+     * page is only fetched once the client has consumed the previous one, so a slow
+     * consumer throttles the database reads instead of filling the heap.
+     */
+    private final class TransactionStream {
+
+        private final long accountId;
+        private final int pageSize;
+        private final ServerCallStreamObserver<TransactionResponse> observer;
+        private final Deque<TransactionDTO> buffer = new ArrayDeque<>();
+
+        private String cursor;
+        private boolean hasMore = true;
+        private boolean done;
+        private volatile boolean cancelled;
+
+        private TransactionStream(StreamTransactionsRequest request,
+                ServerCallStreamObserver<TransactionResponse> observer) {
+            this.accountId = request.getAccountId();
+            this.pageSize = request.getPageSize() > 0 ? request.getPageSize() : 100;
+            this.cursor = request.getAfterCursor();
+            this.observer = observer;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            log.debug("Transaction stream for account {} cancelled by client", accountId);
+        }
+
+        // gRPC serializes the callbacks of a call, so this never runs concurrently with itself
+        private void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                while (observer.isReady() && !cancelled) {
+                    if (buffer.isEmpty()) {
+                        if (!hasMore) {
+                            done = true;
+                            observer.onCompleted();
+                            return;
+                        }
+                        TransactionPageDTO page = transactionService.getTransactionsAfterCursor(
+                                accountId, cursor, pageSize);
+                        buffer.addAll(page.getItems());
+                        hasMore = page.isHasMore();
+                        continue;
+                    }
+                    TransactionDTO transaction = buffer.poll();
+                    cursor = TransactionCursor.encode(transaction.getDate(), transaction.getId());
+                    observer.onNext(mapToTransactionResponse(transaction, cursor));
+                }
+            } catch (Exception e) {
+                done = true;
+                if (!cancelled) {
+                    observer.onError(Status.INTERNAL
+                            .withDescription("Internal server error: " + e.getMessage())
+                            .asRuntimeException());
+                }
+            }
+        }
+    }
+
+    private AccountLookupResponse mapToLookupResponse(List<AccountLookupResultDTO> results) {
+        AccountLookupResponse.Builder response = AccountLookupResponse.newBuilder();
+        for (AccountLookupResultDTO result : results) {
+            AccountLookupResult.Builder item = AccountLookupResult.newBuilder()
+                    .setKey(result.getKey())
+                    .setFound(result.isFound());
+            if (result.isFound()) {
+                item.setAccount(mapToAccountResponse(result.getAccount()));
+            }
+            response.addResults(item);
+        }
+        return response.build();
+    }
+
+    private TransactionResponse mapToTransactionResponse(TransactionDTO dto, String cursor) {
+        return TransactionResponse.newBuilder()
+                .setId(dto.getId())
+                .setType(dto.getType())
+                .setAmount(GrpcTypes.toMoney(dto.getAmount()))
+                .setLabel(dto.getLabel())
+                .setDate(GrpcTypes.toTimestamp(dto.getDate()))
+                .setCursor(cursor)
+                .build();
+    }
+
+    @SuppressWarnings("deprecation")
+    AccountResponse mapToAccountResponse(AccountDTO dto) {
+        AccountResponse.Builder response = AccountResponse.newBuilder()
                 .setId(dto.getId())
                 .setRib(dto.getRib())
-                .setBalance(dto.getBalance().toString())
                 .setStatus(dto.getStatus())
-                .setCreatedAt(dto.getCreatedAt().format(DATE_FORMATTER))
                 .setClientName(dto.getClientName())
-                .build();
+                .setBalanceMoney(GrpcTypes.toMoney(dto.getBalance()))
+                .setCreatedAtTime(GrpcTypes.toTimestamp(dto.getCreatedAt()));
+        if (legacyStringFields) {
+            response.setBalance(dto.getBalance().toString())
+                    .setCreatedAt(dto.getCreatedAt().format(DATE_FORMATTER));
+        }
+        return response.build();
     }
 }
@@ -0,0 +1,45 @@
+package com.ebank.grpc;
+
+import com.ebank.exception.BusinessException;
+import com.ebank.grpc.generated.Money;
+import com.google.protobuf.Timestamp;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions between domain values and their binary protobuf encodings.
+ */
+final class GrpcTypes {
+
+    static final String CURRENCY = "MAD";
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private GrpcTypes() {
+    }
+
+    static Money toMoney(BigDecimal amount) {
+        return Money.newBuilder()
+                .setUnits(amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact())
+                .setCurrency(CURRENCY)
+                .build();
+    }
+
+    static BigDecimal fromMoney(Money money) {
+        if (!money.getCurrency().isEmpty() && !CURRENCY.equals(money.getCurrency())) {
+            throw new BusinessException("Devise non supportée: " + money.getCurrency());
+        }
+        return BigDecimal.valueOf(money.getUnits(), MINOR_UNIT_SCALE);
+    }
+
+    static Timestamp toTimestamp(LocalDateTime dateTime) {
+        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
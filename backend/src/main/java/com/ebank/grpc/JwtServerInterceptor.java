@@ -0,0 +1,123 @@
+package com.ebank.grpc;
+
+import com.ebank.grpc.generated.AccountGrpcServiceGrpc;
+import com.ebank.grpc.generated.TransferGrpcServiceGrpc;
+import com.ebank.security.JwtUserResolver;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.function.Supplier;
+
+/**
+ * Authenticates transfer and transaction history calls with the same bearer JWT as
+ * the REST API, read from the {@code authorization} metadata. Calls without a valid
+ * token are closed with {@code UNAUTHENTICATED}; otherwise the user is put in the
+ * security context for every callback of the call, since they may run on different
+ * executor threads. The account lookup RPCs, health and reflection stay open.
+ */
+@GrpcGlobalServerInterceptor
+@RequiredArgsConstructor
+@Slf4j
+public class JwtServerInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final JwtUserResolver jwtUserResolver;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        if (!requiresAuthentication(call.getMethodDescriptor())) {
+            return next.startCall(call, headers);
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = jwtUserResolver.resolve(JwtUserResolver.bearerToken(headers.get(AUTHORIZATION)));
+        } catch (RuntimeException e) {
+            log.error("Could not authenticate gRPC call {}: {}", call.getMethodDescriptor().getFullMethodName(),
+                    e.getMessage());
+            userDetails = null;
+        }
+        if (userDetails == null) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Jeton d'authentification absent ou invalide"),
+                    new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        ServerCall.Listener<ReqT> delegate = withAuthentication(authentication, () -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+
+            @Override
+            public void onMessage(ReqT message) {
+                withAuthentication(authentication, () -> {
+                    super.onMessage(message);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onHalfClose() {
+                withAuthentication(authentication, () -> {
+                    super.onHalfClose();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onCancel() {
+                withAuthentication(authentication, () -> {
+                    super.onCancel();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                withAuthentication(authentication, () -> {
+                    super.onComplete();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onReady() {
+                withAuthentication(authentication, () -> {
+                    super.onReady();
+                    return null;
+                });
+            }
+        };
+    }
+
+    private static boolean requiresAuthentication(MethodDescriptor<?, ?> method) {
+        return TransferGrpcServiceGrpc.SERVICE_NAME.equals(method.getServiceName())
+                || AccountGrpcServiceGrpc.getStreamTransactionsMethod().getFullMethodName()
+                        .equals(method.getFullMethodName());
+    }
+
+    private static <T> T withAuthentication(Authentication authentication, Supplier<T> callback) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            return callback.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.ebank.grpc;
+
+import com.ebank.dto.BatchTransferItemResultDTO;
+import com.ebank.dto.BatchTransferResultDTO;
+import com.ebank.dto.TransferRequest;
+import com.ebank.exception.BusinessException;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.grpc.generated.*;
+import com.ebank.service.AccountService;
+import com.ebank.service.BatchTransferService;
+import com.ebank.service.TransactionService;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+@GrpcService
+@RequiredArgsConstructor
+@Slf4j
+public class TransferGrpcServiceImpl extends TransferGrpcServiceGrpc.TransferGrpcServiceImplBase {
+
+    private final BatchTransferService batchTransferService;
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+
+    @Override
+    public void executeBatchTransfer(BatchTransferGrpcRequest request,
+            StreamObserver<BatchTransferGrpcResponse> responseObserver) {
+        String username = authenticatedClient(responseObserver);
+        if (username == null) {
+            return;
+        }
+        try {
+            List<TransferRequest> transfers = request.getTransfersList().stream()
+                    .map(this::mapToTransferRequest)
+                    .collect(Collectors.toList());
+
+            BatchTransferResultDTO result = batchTransferService.executeBatch(transfers, username, callActive());
+
+            responseObserver.onNext(mapToBatchResponse(result));
+            responseObserver.onCompleted();
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Internal server error: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void executeTransfer(TransferGrpcRequest request, StreamObserver<TransferGrpcResponse> responseObserver) {
+        String username = authenticatedClient(responseObserver);
+        if (username == null || rejectIfDone(responseObserver)) {
+            return;
+        }
+        TransferRequest transferRequest = mapToTransferRequest(request);
+        try {
+            transferRequest.setAmount(GrpcTypes.fromMoney(request.getAmount()));
+            batchTransferService.validate(transferRequest);
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        try {
+            transactionService.executeTransfer(transferRequest, username, callActive());
+
+            responseObserver.onNext(TransferGrpcResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Virement effectué avec succès")
+                    .setExecutedAt(GrpcTypes.toTimestamp(LocalDateTime.now()))
+                    .build());
+            responseObserver.onCompleted();
+        } catch (ResourceNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (BusinessException e) {
+            if (rejectIfDone(responseObserver)) {
+                return;
+            }
+            responseObserver.onError(Status.FAILED_PRECONDITION
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Internal server error: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Client-streaming bulk transfer: orders are applied chunk by chunk while they
+     * arrive, and a single report is returned once the client half-closes. Chunks
+     * already applied stay applied if the call is cancelled or its deadline expires.
+     */
+    @Override
+    public StreamObserver<TransferGrpcRequest> streamTransfers(
+            StreamObserver<BatchTransferGrpcResponse> responseObserver) {
+        Long ownerClientId = streamOwner(responseObserver);
+        BooleanSupplier active = callActive();
+
+        return new StreamObserver<>() {
+
+            private final List<TransferRequest> pending = new ArrayList<>();
+            private final List<BatchTransferItemResultDTO> results = new ArrayList<>();
+            private int received;
+            private boolean done = ownerClientId == null;
+
+            @Override
+            public void onNext(TransferGrpcRequest request) {
+                if (done) {
+                    return;
+                }
+                if (++received > batchTransferService.getMaxItems()) {
+                    done = true;
+                    responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Le lot ne peut pas dépasser "
+                                    + batchTransferService.getMaxItems() + " virements")
+                            .asRuntimeException());
+                    return;
+                }
+                pending.add(mapToStreamedTransferRequest(request));
+                if (pending.size() >= batchTransferService.getChunkSize()) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done = true;
+                log.warn("Transfer stream aborted by client after {} orders: {}", received, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (done) {
+                    return;
+                }
+                flush();
+                if (done) {
+                    return;
+                }
+                done = true;
+                responseObserver.onNext(mapToBatchResponse(batchTransferService.summarize(results)));
+                responseObserver.onCompleted();
+            }
+
+            private void flush() {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (rejectIfDone(responseObserver)) {
+                    done = true;
+                    return;
+                }
+                results.addAll(batchTransferService.executeChunk(new ArrayList<>(pending), results.size(),
+                        ownerClientId, active));
+                pending.clear();
+                // The chunk may have expired while waiting for its locks
+                if (rejectIfDone(responseObserver)) {
+                    done = true;
+                }
+            }
+        };
+    }
+
+    /**
+     * Username set by {@link JwtServerInterceptor}. Transfers are reserved to clients,
+     * as on the REST API; the call fails with {@code PERMISSION_DENIED} otherwise.
+     */
+    private String authenticatedClient(StreamObserver<?> responseObserver) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getAuthorities().stream()
+                .noneMatch(authority -> "ROLE_CLIENT".equals(authority.getAuthority()))) {
+            responseObserver.onError(Status.PERMISSION_DENIED
+                    .withDescription("Accès refusé: virements réservés aux clients")
+                    .asRuntimeException());
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    // Client whose accounts the streamed orders may debit; null once the call has failed
+    private Long streamOwner(StreamObserver<?> responseObserver) {
+        String username = authenticatedClient(responseObserver);
+        if (username == null) {
+            return null;
+        }
+        try {
+            return accountService.getClientIdByUsername(username);
+        } catch (BusinessException e) {
+            responseObserver.onError(Status.FAILED_PRECONDITION
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return null;
+        }
+    }
+
+    /**
+     * Fails the call when the client has cancelled it or its deadline has passed,
+     * so the work is dropped before touching the database.
+     */
+    private boolean rejectIfDone(StreamObserver<?> responseObserver) {
+        Context context = Context.current();
+        if (!context.isCancelled()) {
+            return false;
+        }
+        Deadline deadline = context.getDeadline();
+        Status status = deadline != null && deadline.isExpired() ? Status.DEADLINE_EXCEEDED : Status.CANCELLED;
+        responseObserver.onError(status.withDescription("Transfer dropped: call no longer active").asRuntimeException());
+        return true;
+    }
+
+    // Evaluated on whichever thread applies the transfer, so the context is captured here
+    private static BooleanSupplier callActive() {
+        Context context = Context.current();
+        return () -> !context.isCancelled();
+    }
+
+    private TransferRequest mapToTransferRequest(TransferGrpcRequest request) {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setSourceRib(request.getSourceRib());
+        transferRequest.setDestinationRib(request.getDestinationRib());
+        transferRequest.setMotif(request.getMotif());
+        return transferRequest;
+    }
+
+    private TransferRequest mapToStreamedTransferRequest(TransferGrpcRequest request) {
+        TransferRequest transferRequest = mapToTransferRequest(request);
+        try {
+            transferRequest.setAmount(GrpcTypes.fromMoney(request.getAmount()));
+        } catch (BusinessException e) {
+            // Reported as an invalid item by the batch service
+            transferRequest.setAmount(null);
+        }
+        return transferRequest;
+    }
+
+    private TransferRequest mapToTransferRequest(TransferItem item) {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setSourceRib(item.getSourceRib());
+        transferRequest.setDestinationRib(item.getDestinationRib());
+        transferRequest.setMotif(item.getMotif());
+        try {
+            transferRequest.setAmount(GrpcTypes.fromMoney(item.getAmount()));
+        } catch (BusinessException e) {
+            // Reported as an invalid item by the batch service
+            transferRequest.setAmount(null);
+        }
+        return transferRequest;
+    }
+
+    private BatchTransferGrpcResponse mapToBatchResponse(BatchTransferResultDTO result) {
+        BatchTransferGrpcResponse.Builder builder = BatchTransferGrpcResponse.newBuilder()
+                .setTotal(result.getTotal())
+                .setSucceeded(result.getSucceeded())
+                .setFailed(result.getFailed());
+        for (BatchTransferItemResultDTO item : result.getResults()) {
+            TransferItemResult.Builder itemResult = TransferItemResult.newBuilder()
+                    .setIndex(item.getIndex())
+                    .setSourceRib(item.getSourceRib() != null ? item.getSourceRib() : "")
+                    .setDestinationRib(item.getDestinationRib() != null ? item.getDestinationRib() : "")
+                    .setSuccess(item.isSuccess())
+                    .setMessage(item.getMessage());
+            if (item.getAmount() != null) {
+                itemResult.setAmount(GrpcTypes.toMoney(item.getAmount()));
+            }
+            builder.addResults(itemResult);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ebank.ledger;
+
+import java.math.BigDecimal;
+
+/**
+ * One journal record: a transfer accepted by the ledger. It carries everything the
+ * projector needs to write the balances and ledger lines to the database.
+ */
+public record LedgerEvent(long sequence, long timestamp, String sourceRib, String destinationRib,
+        BigDecimal amount, String motif) {
+
+    public static LedgerEvent transfer(long timestamp, String sourceRib, String destinationRib, BigDecimal amount,
+            String motif) {
+        return new LedgerEvent(0, timestamp, sourceRib, destinationRib, amount, motif);
+    }
+
+    public LedgerEvent withSequence(long sequence) {
+        return new LedgerEvent(sequence, timestamp, sourceRib, destinationRib, amount, motif);
+    }
+}
@@ -0,0 +1,259 @@
+package com.ebank.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link LedgerEvent}s in memory-mapped segment files of a
+ * fixed size, named after the first sequence they hold. Each record is
+ * {@code [length][crc32][payload]}; a zero length marks the end of a segment.
+ * Opening the journal scans the last segment and discards a torn or corrupt tail
+ * left by a crash. Appends are serialized; {@link #force(long)} makes them durable.
+ */
+public final class LedgerJournal implements Closeable {
+
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+    private static final int SCALE = 2;
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+
+    private final Object forceLock = new Object();
+    private volatile long forcedSequence;
+
+    private LedgerJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static LedgerJournal open(Path directory, int segmentBytes) {
+        LedgerJournal journal = new LedgerJournal(directory, segmentBytes);
+        try {
+            Files.createDirectories(directory);
+            journal.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger journal " + directory, e);
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            startSegment(1);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        lastSequence = firstSequence(last) - 1;
+        map(last);
+        while (true) {
+            LedgerEvent event = read(segment, lastSequence + 1);
+            if (event == null) {
+                break;
+            }
+            lastSequence = event.sequence();
+        }
+        // Zeroes whatever a crash left after the last complete record
+        int end = segment.position();
+        for (int i = end; i < segment.limit(); i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.force();
+        segment.position(end);
+        forcedSequence = lastSequence;
+    }
+
+    public synchronized long append(LedgerEvent event) {
+        long sequence = lastSequence + 1;
+        byte[] payload = encode(event.withSequence(sequence));
+        if (payload.length + HEADER_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Ledger record larger than a journal segment");
+        }
+        try {
+            // Room is left for the zero length that ends the segment
+            if (segment.remaining() < payload.length + HEADER_BYTES * 2) {
+                segment.force();
+                channel.close();
+                startSegment(sequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate ledger journal segment", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.putInt((int) crc.getValue());
+        segment.put(payload);
+        // The length goes last, so a reader never sees a record before it is complete
+        segment.putInt(start, payload.length);
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Makes every record up to {@code sequence} durable. A caller whose record was
+     * appended before a force started is covered by it, so concurrent appenders
+     * share one force instead of queueing one each.
+     */
+    public void force(long sequence) {
+        synchronized (forceLock) {
+            if (forcedSequence >= sequence) {
+                return;
+            }
+            long upTo;
+            MappedByteBuffer current;
+            synchronized (this) {
+                upTo = lastSequence;
+                current = segment;
+            }
+            // Earlier segments were forced when they were rotated
+            current.force();
+            forcedSequence = upTo;
+        }
+    }
+
+    public long getForcedSequence() {
+        return forcedSequence;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Passes every event from {@code fromSequence} onwards, in order, to the consumer.
+     */
+    public void replay(long fromSequence, Consumer<LedgerEvent> consumer) {
+        long upTo = getLastSequence();
+        try {
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size(); i++) {
+                if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                    continue;
+                }
+                try (FileChannel reader = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                    ByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+                    long expected = firstSequence(segments.get(i));
+                    LedgerEvent event;
+                    while (expected <= upTo && (event = read(buffer, expected)) != null) {
+                        if (event.sequence() >= fromSequence) {
+                            consumer.accept(event);
+                        }
+                        expected++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ledger journal " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close ledger journal " + directory, e);
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        map(directory.resolve(String.format("%020d%s", firstSequence, SUFFIX)));
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentBytes));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    // Reads the record at the buffer position, or returns null at the end of the valid records
+    private static LedgerEvent read(ByteBuffer buffer, long expectedSequence) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(start + HEADER_BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (buffer.getInt(start + 4) != (int) crc.getValue()) {
+            return null;
+        }
+        LedgerEvent event = decode(payload);
+        if (event.sequence() != expectedSequence) {
+            return null;
+        }
+        buffer.position(start + HEADER_BYTES + length);
+        return event;
+    }
+
+    // Amounts are validated to two decimals before they reach the journal
+    private static byte[] encode(LedgerEvent event) {
+        byte[] source = event.sourceRib().getBytes(StandardCharsets.UTF_8);
+        byte[] destination = event.destinationRib().getBytes(StandardCharsets.UTF_8);
+        byte[] motif = event.motif().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 8 + 2 + source.length + 2 + destination.length
+                + 2 + motif.length);
+        buffer.putLong(event.sequence());
+        buffer.putLong(event.timestamp());
+        buffer.putLong(event.amount().setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        buffer.putShort((short) source.length).put(source);
+        buffer.putShort((short) destination.length).put(destination);
+        buffer.putShort((short) motif.length).put(motif);
+        return buffer.array();
+    }
+
+    private static LedgerEvent decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        BigDecimal amount = BigDecimal.valueOf(buffer.getLong(), SCALE);
+        return new LedgerEvent(sequence, timestamp, readString(buffer), readString(buffer), amount,
+                readString(buffer));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
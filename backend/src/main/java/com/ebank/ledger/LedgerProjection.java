@@ -0,0 +1,30 @@
+package com.ebank.ledger;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Net money movement per RIB folded from journal records, up to {@link #getSequence()}.
+ * Used for point-in-time rebuilds; the database balances are the checkpointed
+ * projection of the whole journal.
+ */
+public final class LedgerProjection {
+
+    private final Map<String, BigDecimal> movements = new TreeMap<>();
+    private long sequence;
+
+    public void apply(LedgerEvent event) {
+        movements.merge(event.sourceRib(), event.amount().negate(), BigDecimal::add);
+        movements.merge(event.destinationRib(), event.amount(), BigDecimal::add);
+        sequence = event.sequence();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Map<String, BigDecimal> getMovements() {
+        return Map.copyOf(movements);
+    }
+}
@@ -0,0 +1,377 @@
+package com.ebank.ledger;
+
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountStatus;
+import com.ebank.entity.Transaction;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.TransactionRepository;
+import com.ebank.service.DashboardCache;
+import com.ebank.service.OptimisticRetryExecutor;
+import com.ebank.service.TransferProcessor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Journal-first transfers ({@code ledger.journal.enabled}). A transfer is checked
+ * against the accounts as the database has them plus the records not yet projected,
+ * appended to the {@link LedgerJournal}, and acknowledged once the journal is forced
+ * (concurrent transfers share one force) and the transfer is in the database.
+ * A projector thread writes the journaled transfers to the database in batches:
+ * balances, ledger lines and the projected sequence commit together, so each record
+ * is projected exactly once. At startup the journal after the projected
+ * sequence is projected before any transfer is accepted.
+ * Only this instance knows its unprojected records, so a single instance may run with
+ * the journal enabled and every transfer must go through it.
+ */
+@Component
+@Slf4j
+public class TransferLedger {
+
+    private static final String READ_PROJECTED = "SELECT projected_sequence FROM ledger_checkpoint WHERE id = 1";
+    private static final String WRITE_PROJECTED = "UPDATE ledger_checkpoint SET projected_sequence = ? WHERE id = 1";
+    // One statement, so the accounts and the projected sequence come from the same commit
+    private static final String READ_ACCOUNTS = "SELECT a.id, a.rib, a.client_id, a.status, a.balance"
+            + " + (SELECT COALESCE(SUM(s.amount), 0) FROM account_balance_slots s WHERE s.account_id = a.id),"
+            + " c.projected_sequence FROM accounts a CROSS JOIN ledger_checkpoint c WHERE c.id = 1 AND a.rib IN (?, ?)";
+    private static final long IDLE_WAIT_MS = 100;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long PROJECTION_WAIT_MS = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferProcessor transferProcessor;
+    private final DashboardCache dashboardCache;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int batchSize;
+
+    private LedgerJournal journal;
+
+    // Appended and not yet removed by the projector, in sequence order
+    private final Queue<LedgerEvent> unprojected = new ConcurrentLinkedQueue<>();
+    private volatile long projectedSequence;
+    private final Object projectedMonitor = new Object();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder projectionBatches = new LongAdder();
+
+    private Thread projector;
+    private volatile boolean running;
+
+    public TransferLedger(AccountRepository accountRepository, TransactionRepository transactionRepository,
+            TransferProcessor transferProcessor, DashboardCache dashboardCache,
+            OptimisticRetryExecutor optimisticRetryExecutor, TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate,
+            @Value("${ledger.journal.enabled:false}") boolean enabled,
+            @Value("${ledger.journal.directory:./data/ledger}") String directory,
+            @Value("${ledger.journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${ledger.projection.batch-size:500}") int batchSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transferProcessor = transferProcessor;
+        this.dashboardCache = dashboardCache;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        journal = LedgerJournal.open(directory, segmentBytes);
+        projectedSequence = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(READ_PROJECTED,
+                Long.class));
+        if (journal.getLastSequence() < projectedSequence) {
+            throw new IllegalStateException("Ledger journal " + directory + " ends at sequence "
+                    + journal.getLastSequence() + " but the database is projected up to " + projectedSequence);
+        }
+
+        // Transfers are checked against the database, so it must have every record first
+        long recovered = journal.getLastSequence() - projectedSequence;
+        journal.replay(projectedSequence + 1, unprojected::add);
+        while (projectNext() > 0) {
+            // Projects in batches of batch-size
+        }
+        log.info("Ledger journal opened at sequence {}, {} transfers projected at startup",
+                journal.getLastSequence(), recovered);
+
+        running = true;
+        projector = new Thread(this::project, "ledger-projector");
+        projector.setDaemon(true);
+        projector.start();
+    }
+
+    /**
+     * Checks the transfer against the ledger balances and appends it to the journal.
+     * The transfer is not durable until {@link #awaitProjected} returns for its sequence.
+     */
+    public long append(TransferRequest request, Long ownerClientId) {
+        LedgerEvent transfer = LedgerEvent.transfer(System.currentTimeMillis(), request.getSourceRib(),
+                request.getDestinationRib(), request.getAmount(), request.getMotif());
+        while (true) {
+            Snapshot snapshot = readAccounts(request.getSourceRib(), request.getDestinationRib());
+            synchronized (this) {
+                // Records projected after the snapshot may already be gone from the queue: read again
+                if (snapshot.projectedSequence() < projectedSequence) {
+                    continue;
+                }
+                Account source = snapshot.account(request.getSourceRib());
+                Account destination = snapshot.account(request.getDestinationRib());
+                addUnprojected(source, destination, snapshot.projectedSequence());
+                transferProcessor.check(source, destination, request, ownerClientId);
+                long sequence = journal.append(transfer);
+                unprojected.add(transfer.withSequence(sequence));
+                appended.increment();
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Returns once every record up to {@code sequence} is on disk and in the database,
+     * so the caller's next reads show the transfer. When the projection stalls, gives
+     * up after {@code PROJECTION_WAIT_MS}: the records are durable and projected later.
+     */
+    public void awaitProjected(long sequence) {
+        journal.force(sequence);
+        LockSupport.unpark(projector);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROJECTION_WAIT_MS);
+        synchronized (projectedMonitor) {
+            while (projectedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("Ledger record {} is durable but not projected after {} ms", sequence,
+                            PROJECTION_WAIT_MS);
+                    return;
+                }
+                try {
+                    projectedMonitor.wait(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Status and available balance of both accounts as committed in the database, so
+     * blocked or closed accounts and corrections made outside the journal are seen by
+     * the next transfer. Outside a transaction the query goes to the primary.
+     */
+    private Snapshot readAccounts(String sourceRib, String destinationRib) {
+        Map<String, Account> accounts = new HashMap<>();
+        long[] projected = {-1};
+        jdbcTemplate.query(READ_ACCOUNTS, (ResultSet row) -> {
+            Account account = Account.builder()
+                    .id(row.getLong(1))
+                    .rib(row.getString(2))
+                    .clientId(row.getLong(3))
+                    .status(AccountStatus.valueOf(row.getString(4)))
+                    .balance(row.getBigDecimal(5))
+                    .build();
+            accounts.put(account.getRib(), account);
+            projected[0] = row.getLong(6);
+        }, sourceRib, destinationRib);
+        for (String rib : List.of(sourceRib, destinationRib)) {
+            if (!accounts.containsKey(rib)) {
+                throw new ResourceNotFoundException("Compte non trouvé: " + rib);
+            }
+        }
+        return new Snapshot(accounts, projected[0]);
+    }
+
+    // Moves the records appended after the snapshot into its balances; the lock keeps the queue complete past it
+    private void addUnprojected(Account source, Account destination, long snapshotSequence) {
+        for (LedgerEvent event : unprojected) {
+            if (event.sequence() <= snapshotSequence) {
+                continue;
+            }
+            for (Account account : source == destination ? List.of(source) : List.of(source, destination)) {
+                if (account.getRib().equals(event.sourceRib())) {
+                    account.setBalance(account.getBalance().subtract(event.amount()));
+                }
+                if (account.getRib().equals(event.destinationRib())) {
+                    account.setBalance(account.getBalance().add(event.amount()));
+                }
+            }
+        }
+    }
+
+    private record Snapshot(Map<String, Account> accounts, long projectedSequence) {
+
+        Account account(String rib) {
+            return accounts.get(rib);
+        }
+    }
+
+    private void project() {
+        while (running) {
+            try {
+                if (projectNext() == 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MS));
+                }
+            } catch (RuntimeException e) {
+                log.error("Ledger projection failed after sequence {}, retrying: {}", projectedSequence,
+                        e.getMessage());
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MS));
+            }
+        }
+    }
+
+    // Projects the oldest durable records, up to batch-size, and returns how many
+    private int projectNext() {
+        long forced = journal.getForcedSequence();
+        List<LedgerEvent> batch = new ArrayList<>(batchSize);
+        for (LedgerEvent event : unprojected) {
+            if (event.sequence() > forced || batch.size() == batchSize) {
+                break;
+            }
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> ribs = new LinkedHashSet<>();
+        batch.forEach(event -> {
+            ribs.add(event.sourceRib());
+            ribs.add(event.destinationRib());
+        });
+        // A hot account fold committed meanwhile fails the version check; the batch is replayed on fresh rows
+        optimisticRetryExecutor.execute(ribs, () -> transactionTemplate.execute(status -> write(batch, ribs)));
+
+        synchronized (this) {
+            batch.forEach(event -> unprojected.poll());
+            projectedSequence = batch.get(batch.size() - 1).sequence();
+        }
+        synchronized (projectedMonitor) {
+            projectedMonitor.notifyAll();
+        }
+        projectionBatches.increment();
+        return batch.size();
+    }
+
+    private Void write(List<LedgerEvent> batch, Set<String> ribs) {
+        Map<String, Account> accounts = accountRepository.findByRibIn(ribs).stream()
+                .collect(Collectors.toMap(Account::getRib, Function.identity()));
+        List<Transaction> lines = new ArrayList<>(batch.size() * 2);
+        for (LedgerEvent event : batch) {
+            TransferRequest request = new TransferRequest(event.sourceRib(), event.destinationRib(),
+                    event.amount(), event.motif());
+            lines.addAll(transferProcessor.post(accounts.get(event.sourceRib()),
+                    accounts.get(event.destinationRib()), request, toDateTime(event.timestamp())));
+        }
+        accountRepository.saveAll(accounts.values());
+        transactionRepository.saveAll(lines);
+        jdbcTemplate.update(WRITE_PROJECTED, batch.get(batch.size() - 1).sequence());
+
+        dashboardCache.evictAfterCommit(accounts.values().stream()
+                .map(Account::getClientId)
+                .collect(Collectors.toSet()));
+        return null;
+    }
+
+    /**
+     * Point-in-time rebuild: net movement per RIB of the transfers dated up to
+     * {@code at}, replayed from the start of the journal.
+     */
+    public Map<String, BigDecimal> rebuildMovements(LocalDateTime at) {
+        if (journal == null) {
+            return Map.of();
+        }
+        long until = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        LedgerProjection rebuilt = new LedgerProjection();
+        journal.replay(1, event -> {
+            if (event.timestamp() <= until) {
+                rebuilt.apply(event);
+            }
+        });
+        return rebuilt.getMovements();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(projector);
+        projector.join(TimeUnit.SECONDS.toMillis(10));
+
+        journal.force(journal.getLastSequence());
+        try {
+            while (projectNext() > 0) {
+                // Leaves nothing to project at the next startup
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ledger projection stopped after sequence {}, the rest is projected at the next startup: {}",
+                    projectedSequence, e.getMessage());
+        }
+        journal.close();
+    }
+
+    private static LocalDateTime toDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getLastSequence() {
+        return journal == null ? 0 : journal.getLastSequence();
+    }
+
+    public long getProjectedSequence() {
+        return projectedSequence;
+    }
+
+    public long getProjectionLag() {
+        return getLastSequence() - projectedSequence;
+    }
+
+    public long getAppended() {
+        return appended.sum();
+    }
+
+    public long getProjectionBatches() {
+        return projectionBatches.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ebank.repository;
+
+import com.ebank.entity.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, AccountBalanceSlot.Key> {
+    List<AccountBalanceSlot> findByAccountId(Long accountId);
+
+    @Query("SELECT DISTINCT s.accountId FROM AccountBalanceSlot s WHERE s.amount <> 0")
+    List<Long> findAccountIdsToFold();
+
+    // Relative updates: concurrent credits to the same slot are never lost
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.amount = s.amount + :amount "
+            + "WHERE s.accountId = :accountId AND s.slot = :slot")
+    int addToSlot(@Param("accountId") Long accountId, @Param("slot") Integer slot, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.amount = s.amount - :amount "
+            + "WHERE s.accountId = :accountId AND s.slot = :slot")
+    int subtractFromSlot(@Param("accountId") Long accountId, @Param("slot") Integer slot,
+            @Param("amount") BigDecimal amount);
+}
@@ -1,27 +1,48 @@
 package com.ebank.repository;
 
+import com.ebank.dto.AccountDTO;
 import com.ebank.entity.Account;
 import com.ebank.entity.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByRib(String rib);
 
+    List<Account> findByRibIn(Collection<String> ribs);
+
     List<Account> findByClientId(Long clientId);
 
     List<Account> findByClientIdAndStatus(Long clientId, AccountStatus status);
 
     boolean existsByRib(String rib);
 
-    @Query("SELECT a FROM Account a WHERE a.client.id = :clientId ORDER BY a.createdAt DESC")
+    @Query("SELECT a FROM Account a JOIN FETCH a.client WHERE a.client.id = :clientId ORDER BY a.createdAt DESC")
     List<Account> findByClientIdOrderByCreatedAtDesc(@Param("clientId") Long clientId);
 
-    @Query("SELECT a FROM Account a WHERE a.client.user.id = :userId")
+    @Query("SELECT a FROM Account a JOIN FETCH a.client c WHERE c.user.id = :userId")
     List<Account> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.ebank.dto.AccountDTO(a.id, a.rib, a.balance + a.slotBalance, a.status, a.createdAt, "
+            + "c.id, c.firstName, c.lastName) "
+            + "FROM Account a JOIN a.client c WHERE c.id = :clientId ORDER BY a.createdAt DESC")
+    List<AccountDTO> findDashboardAccountsByClientId(@Param("clientId") Long clientId);
+
+    @Query("SELECT new com.ebank.dto.AccountDTO(a.id, a.rib, a.balance + a.slotBalance, a.status, a.createdAt, "
+            + "c.id, c.firstName, c.lastName) "
+            + "FROM Account a JOIN a.client c WHERE a.rib IN :ribs")
+    List<AccountDTO> findAccountDTOsByRibIn(@Param("ribs") Collection<String> ribs);
+
+    @Query("SELECT new com.ebank.dto.AccountDTO(a.id, a.rib, a.balance + a.slotBalance, a.status, a.createdAt, "
+            + "c.id, c.firstName, c.lastName) "
+            + "FROM Account a JOIN a.client c WHERE a.id IN :ids")
+    List<AccountDTO> findAccountDTOsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,18 +1,40 @@
 package com.ebank.repository;
 
 import com.ebank.entity.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
-    Optional<Client> findByIdentityNumber(String identityNumber);
+@Transactional(readOnly = true)
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientRepositoryCustom {
 
     Optional<Client> findByEmail(String email);
 
+    // Cached query; Hibernate drops the result whenever the clients table changes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "clients-by-user")
+    })
     Optional<Client> findByUserId(Long userId);
 
+    @Query("SELECT c.id FROM Client c WHERE c.user.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Query("SELECT c FROM Client c LEFT JOIN FETCH c.user")
+    List<Client> findAllWithUser();
+
+    @Query("SELECT c FROM Client c LEFT JOIN FETCH c.user WHERE c.id IN :ids")
+    List<Client> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
     boolean existsByIdentityNumber(String identityNumber);
 
     boolean existsByEmail(String email);
@@ -0,0 +1,10 @@
+package com.ebank.repository;
+
+import com.ebank.entity.Client;
+import java.util.Optional;
+
+public interface ClientRepositoryCustom {
+
+    // Resolved through the natural-id and second-level caches
+    Optional<Client> findByIdentityNumber(String identityNumber);
+}
@@ -1,15 +1,25 @@
 package com.ebank.repository;
 
+import com.ebank.dto.TransactionDTO;
 import com.ebank.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Page<Transaction> findByAccountIdOrderByDateDesc(Long accountId, Pageable pageable);
 
@@ -17,4 +27,55 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.date DESC")
     Page<Transaction> findTransactionsByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query("SELECT new com.ebank.dto.TransactionDTO(t.id, t.type, t.amount, t.label, t.date) "
+            + "FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findRecentByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // Keyset page strictly after (date, id) in (date DESC, id DESC) order; never issues a count query
+    @Query("SELECT new com.ebank.dto.TransactionDTO(t.id, t.type, t.amount, t.label, t.date) "
+            + "FROM Transaction t WHERE t.account.id = :accountId "
+            + "AND (t.date < :date OR (t.date = :date AND t.id < :id)) "
+            + "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageBefore(@Param("accountId") Long accountId,
+            @Param("date") LocalDateTime date,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    // Rows are fetched from the driver in chunks and never attached to the persistence context
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ebank.dto.TransactionDTO(t.id, t.type, t.amount, t.label, t.date) "
+            + "FROM Transaction t WHERE t.account.id = :accountId AND t.date >= :from AND t.date < :to "
+            + "ORDER BY t.date, t.id")
+    Stream<TransactionDTO> streamStatement(@Param("accountId") Long accountId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Newest rows of every requested account in one statement, ranked per account
+    @Query(value = "SELECT id, accountId, type, amount, label, date FROM ("
+            + "SELECT t.id AS id, t.account_id AS accountId, t.type AS type, t.amount AS amount, "
+            + "t.label AS label, t.date AS date, "
+            + "ROW_NUMBER() OVER (PARTITION BY t.account_id ORDER BY t.date DESC, t.id DESC) AS rn "
+            + "FROM transactions t WHERE t.account_id IN (:accountIds)) ranked "
+            + "WHERE rn <= :limit ORDER BY accountId, date DESC, id DESC",
+            nativeQuery = true)
+    List<RankedTransaction> findRecentByAccountIdIn(@Param("accountIds") Collection<Long> accountIds,
+            @Param("limit") int limit);
+
+    interface RankedTransaction {
+        Long getId();
+
+        Long getAccountId();
+
+        String getType();
+
+        BigDecimal getAmount();
+
+        String getLabel();
+
+        LocalDateTime getDate();
+    }
 }
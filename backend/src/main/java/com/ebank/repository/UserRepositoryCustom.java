@@ -0,0 +1,10 @@
+package com.ebank.repository;
+
+import com.ebank.entity.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Resolved through the natural-id and second-level caches
+    Optional<User> findByUsername(String username);
+}
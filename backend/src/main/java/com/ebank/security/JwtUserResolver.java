@@ -0,0 +1,59 @@
+package com.ebank.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+
+/**
+ * Turns a bearer token into the user it authenticates, for the HTTP filter and the
+ * gRPC interceptor alike. Returns {@code null} for an invalid, revoked or disabled token.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtUserResolver {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    public UserDetails resolve(String jwt) {
+        Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.parseClaims(jwt) : null;
+        if (claims == null) {
+            return null;
+        }
+
+        String username = claims.getSubject();
+        if (tokenRevocationRegistry.isRevoked(username, claims.getIssuedAt())) {
+            return null;
+        }
+
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        Boolean enabled = claims.get(JwtTokenProvider.ENABLED_CLAIM, Boolean.class);
+        if (role == null || enabled == null) {
+            // Token issued without authority claims: fall back to the database
+            return userDetailsService.loadUserByUsername(username);
+        }
+        if (!enabled) {
+            return null;
+        }
+
+        return new User(username, "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    /**
+     * Extracts the token from an {@code Authorization: Bearer ...} header value.
+     */
+    public static String bearerToken(String header) {
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ebank.security;
+
+import com.ebank.entity.User;
+import com.ebank.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the users whose tokens must no longer be accepted: disabled
+ * users, and users whose credentials changed after the token was issued. It is
+ * refreshed incrementally from the database, so a change made on another
+ * instance is enforced here within one refresh interval. Changed users are also
+ * evicted from this instance's second-level cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${jwt.revocation.refresh-overlap-ms:5000}")
+    private long refreshOverlapMs;
+
+    private final Set<String> disabledUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> credentialsChangedAt = new ConcurrentHashMap<>();
+    private volatile LocalDateTime watermark;
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.findByEnabledFalseOrCredentialsChangedAtIsNotNull().forEach(this::apply);
+        watermark = now;
+        log.info("Token revocation registry loaded: {} disabled users, {} credential changes",
+                disabledUsers.size(), credentialsChangedAt.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap covers clock skew between instances and in-flight commits
+        LocalDateTime since = watermark.minus(refreshOverlapMs, ChronoUnit.MILLIS);
+        List<User> changed = userRepository.findByUpdatedAtAfter(since);
+        changed.forEach(this::apply);
+        evictCachedUsers(changed);
+        watermark = now;
+    }
+
+    public boolean isRevoked(String username, Date issuedAt) {
+        if (disabledUsers.contains(username)) {
+            return true;
+        }
+        Instant changedAt = credentialsChangedAt.get(username);
+        // JWT timestamps have second precision: a token issued in the second of the change may predate it
+        return changedAt != null && (issuedAt == null || !issuedAt.toInstant().truncatedTo(ChronoUnit.SECONDS)
+                .isAfter(changedAt.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    public void credentialsChanged(String username, LocalDateTime changedAt) {
+        credentialsChangedAt.merge(username, toInstant(changedAt), (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    private void apply(User user) {
+        if (user.isEnabled()) {
+            disabledUsers.remove(user.getUsername());
+        } else {
+            disabledUsers.add(user.getUsername());
+        }
+        if (user.getCredentialsChangedAt() != null) {
+            credentialsChanged(user.getUsername(), user.getCredentialsChangedAt());
+        }
+    }
+
+    // The second-level cache is local to each instance: drop users changed anywhere
+    private void evictCachedUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        users.forEach(user -> cache.evictEntityData(User.class, user.getId()));
+    }
+
+    private Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
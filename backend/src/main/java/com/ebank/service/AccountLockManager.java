@@ -0,0 +1,118 @@
+package com.ebank.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-JVM locks keyed by RIB. Two transfers only contend when they touch
+ * accounts hashing to the same stripe; stripes are always acquired in ascending
+ * index order so concurrent transfers can never deadlock.
+ */
+@Component
+@Slf4j
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0L);
+
+    public AccountLockManager(@Value("${transfer.lock.stripes:0}") int configuredStripes) {
+        int requested = configuredStripes > 0
+                ? configuredStripes
+                : Runtime.getRuntime().availableProcessors() * 16;
+        int size = Integer.highestOneBit(Math.max(requested - 1, 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        log.info("Account lock manager initialized with {} stripes", size);
+    }
+
+    public <T> T executeWithLocks(String firstRib, String secondRib, Supplier<T> action) {
+        int first = stripeFor(firstRib);
+        int second = stripeFor(secondRib);
+        if (first == second) {
+            return executeWithStripes(new int[]{first}, action);
+        }
+        return executeWithStripes(new int[]{Math.min(first, second), Math.max(first, second)}, action);
+    }
+
+    public <T> T executeWithLocks(Collection<String> ribs, Supplier<T> action) {
+        int[] indexes = ribs.stream()
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+        return executeWithStripes(indexes, action);
+    }
+
+    private <T> T executeWithStripes(int[] indexes, Supplier<T> action) {
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        acquisitions.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        contendedAcquisitions.increment();
+        long start = System.nanoTime();
+        lock.lock();
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+    }
+
+    private int stripeFor(String rib) {
+        int h = rib.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    public int getQueuedThreads() {
+        return Arrays.stream(stripes).mapToInt(ReentrantLock::getQueueLength).sum();
+    }
+}
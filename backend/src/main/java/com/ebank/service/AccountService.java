@@ -1,6 +1,8 @@
 package com.ebank.service;
 
+import com.ebank.datasource.ReadYourWritesTracker;
 import com.ebank.dto.AccountDTO;
+import com.ebank.dto.AccountLookupResultDTO;
 import com.ebank.dto.CreateAccountRequest;
 import com.ebank.entity.Account;
 import com.ebank.entity.AccountStatus;
@@ -10,12 +12,20 @@ import com.ebank.exception.ResourceNotFoundException;
 import com.ebank.repository.AccountRepository;
 import com.ebank.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +34,11 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final ClientRepository clientRepository;
+    private final DashboardCache dashboardCache;
+    private final ReadYourWritesTracker readYourWrites;
+
+    @Value("${account.lookup.max-keys:1000}")
+    private int maxLookupKeys;
 
     @Transactional
     public AccountDTO createAccount(CreateAccountRequest request) {
@@ -48,33 +63,103 @@ public class AccountService {
 
         account = accountRepository.save(account);
 
+        dashboardCache.evictAfterCommit(List.of(client.getId()));
+        readYourWrites.recordCurrentUserWrite();
+
         return mapToDTO(account);
     }
 
+    /**
+     * Client owning the user's accounts, cached alongside the dashboard snapshots.
+     */
+    public Long getClientIdByUsername(String username) {
+        return dashboardCache.getClientId(username, () -> clientRepository.findIdByUsername(username)
+                .orElseThrow(() -> new BusinessException("Client non trouvé")));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isOwnedBy(Long accountId, String username) {
+        Long clientId = accountRepository.findById(accountId)
+                .map(Account::getClientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé"));
+        return clientId.equals(getClientIdByUsername(username));
+    }
+
+    @Transactional(readOnly = true)
     public AccountDTO getAccountByRib(String rib) {
         Account account = accountRepository.findByRib(rib)
                 .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé"));
         return mapToDTO(account);
     }
 
+    @Transactional(readOnly = true)
     public AccountDTO getAccountById(Long id) {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé"));
         return mapToDTO(account);
     }
 
+    @Transactional(readOnly = true)
     public List<AccountDTO> getAccountsByUserId(Long userId) {
         return accountRepository.findByUserId(userId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AccountDTO> getAccountsByClientId(Long clientId) {
         return accountRepository.findByClientIdOrderByCreatedAtDesc(clientId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Resolves every RIB with one query. Results follow the request order and unknown
+     * RIBs are reported as not found instead of failing the whole lookup.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountLookupResultDTO> getAccountsByRibs(List<String> ribs) {
+        Set<String> keys = distinctKeys(ribs);
+        Map<String, AccountDTO> accounts = keys.isEmpty()
+                ? Map.of()
+                : accountRepository.findAccountDTOsByRibIn(keys).stream()
+                        .collect(Collectors.toMap(AccountDTO::getRib, Function.identity()));
+        return lookupResults(ribs, accounts::get);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountLookupResultDTO> getAccountsByIds(List<Long> ids) {
+        Set<Long> keys = distinctKeys(ids);
+        Map<Long, AccountDTO> accounts = keys.isEmpty()
+                ? Map.of()
+                : accountRepository.findAccountDTOsByIdIn(keys).stream()
+                        .collect(Collectors.toMap(AccountDTO::getId, Function.identity()));
+        return lookupResults(ids, accounts::get);
+    }
+
+    private <K> Set<K> distinctKeys(Collection<K> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new BusinessException("Au moins un compte doit être demandé");
+        }
+        if (keys.size() > maxLookupKeys) {
+            throw new BusinessException("La recherche ne peut pas dépasser " + maxLookupKeys + " comptes");
+        }
+        return keys.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private <K> List<AccountLookupResultDTO> lookupResults(List<K> keys, Function<K, AccountDTO> accounts) {
+        List<AccountLookupResultDTO> results = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            AccountDTO account = key != null ? accounts.apply(key) : null;
+            results.add(AccountLookupResultDTO.builder()
+                    .key(String.valueOf(key))
+                    .found(account != null)
+                    .account(account)
+                    .build());
+        }
+        return results;
+    }
+
     public Account getAccountEntityByRib(String rib) {
         return accountRepository.findByRib(rib)
                 .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé: " + rib));
@@ -85,14 +170,15 @@ public class AccountService {
         accountRepository.save(account);
     }
 
-    private AccountDTO mapToDTO(Account account) {
+    AccountDTO mapToDTO(Account account) {
         return AccountDTO.builder()
                 .id(account.getId())
                 .rib(account.getRib())
-                .balance(account.getBalance())
+                .balance(account.getAvailableBalance())
                 .status(account.getStatus().name())
                 .createdAt(account.getCreatedAt())
                 .clientName(account.getClient().getFirstName() + " " + account.getClient().getLastName())
+                .clientId(account.getClient().getId())
                 .build();
     }
 }
@@ -1,5 +1,6 @@
 package com.ebank.service;
 
+import com.ebank.datasource.ReadYourWritesTracker;
 import com.ebank.dto.ChangePasswordRequest;
 import com.ebank.dto.LoginRequest;
 import com.ebank.dto.LoginResponse;
@@ -7,6 +8,7 @@ import com.ebank.entity.User;
 import com.ebank.exception.BusinessException;
 import com.ebank.repository.UserRepository;
 import com.ebank.security.JwtTokenProvider;
+import com.ebank.security.TokenRevocationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -17,6 +19,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -25,6 +31,8 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final ReadYourWritesTracker readYourWrites;
 
     public LoginResponse login(LoginRequest request) {
         try {
@@ -34,11 +42,12 @@ public class AuthService {
                             request.getPassword()));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = jwtTokenProvider.generateToken(authentication);
-
             User user = userRepository.findByUsername(request.getUsername())
                     .orElseThrow(() -> new BadCredentialsException("User not found"));
 
+            awaitSecondAfter(user.getCredentialsChangedAt());
+            String token = jwtTokenProvider.generateToken(authentication);
+
             return LoginResponse.builder()
                     .token(token)
                     .username(user.getUsername())
@@ -51,6 +60,27 @@ public class AuthService {
         }
     }
 
+    /**
+     * Tokens issued in the second of a credentials change are revoked, so a login right
+     * after a password change waits for the next second.
+     */
+    private static void awaitSecondAfter(LocalDateTime credentialsChangedAt) {
+        if (credentialsChangedAt == null) {
+            return;
+        }
+        long nextSecond = credentialsChangedAt.atZone(ZoneId.systemDefault()).toInstant()
+                .truncatedTo(ChronoUnit.SECONDS).plusSeconds(1).toEpochMilli();
+        long wait = nextSecond - System.currentTimeMillis();
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted before issuing the token", e);
+            }
+        }
+    }
+
     @Transactional
     public void changePassword(ChangePasswordRequest request, String username) {
         User user = userRepository.findByUsername(username)
@@ -64,7 +94,13 @@ public class AuthService {
             throw new BusinessException("Les mots de passe ne correspondent pas");
         }
 
+        LocalDateTime now = LocalDateTime.now();
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setCredentialsChangedAt(now);
         userRepository.save(user);
+
+        // Other instances pick the change up on their next registry refresh
+        tokenRevocationRegistry.credentialsChanged(username, now);
+        readYourWrites.recordWrite(username);
     }
 }
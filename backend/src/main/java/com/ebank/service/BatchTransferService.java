@@ -0,0 +1,303 @@
+package com.ebank.service;
+
+import com.ebank.dto.BatchTransferItemResultDTO;
+import com.ebank.dto.BatchTransferResultDTO;
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.Transaction;
+import com.ebank.datasource.ReadYourWritesTracker;
+import com.ebank.exception.BusinessException;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.ledger.TransferLedger;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.TransactionRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchTransferService {
+
+    static final BooleanSupplier ALWAYS_ACTIVE = () -> true;
+    static final String ABANDONED = "Virement non effectué: la demande a expiré ou a été annulée";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferProcessor transferProcessor;
+    private final DashboardCache dashboardCache;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWrites;
+    private final HotAccountBalances hotAccountBalances;
+    private final AccountService accountService;
+    private final TransferLedger transferLedger;
+
+    @Getter
+    @Value("${transfer.batch.chunk-size:100}")
+    private int chunkSize;
+
+    @Getter
+    @Value("${transfer.batch.max-items:10000}")
+    private int maxItems;
+
+    @Value("${transfer.lock.enabled:true}")
+    private boolean localLockEnabled;
+
+    public BatchTransferResultDTO executeBatch(List<TransferRequest> requests, String username) {
+        return executeBatch(requests, username, ALWAYS_ACTIVE);
+    }
+
+    /**
+     * Items of a chunk are skipped, and reported as not executed, when {@code active}
+     * no longer holds once the chunk has its locks.
+     */
+    public BatchTransferResultDTO executeBatch(List<TransferRequest> requests, String username,
+            BooleanSupplier active) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BusinessException("Le lot de virements est vide");
+        }
+        if (requests.size() > maxItems) {
+            throw new BusinessException("Le lot ne peut pas dépasser " + maxItems + " virements");
+        }
+
+        Long ownerClientId = accountService.getClientIdByUsername(username);
+        List<BatchTransferItemResultDTO> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<TransferRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            results.addAll(executeChunk(chunk, from, ownerClientId, active));
+        }
+        readYourWrites.recordWrite(username);
+        return summarize(results);
+    }
+
+    public BatchTransferResultDTO summarize(List<BatchTransferItemResultDTO> results) {
+        int succeeded = (int) results.stream().filter(BatchTransferItemResultDTO::isSuccess).count();
+        return BatchTransferResultDTO.builder()
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    public List<BatchTransferItemResultDTO> executeChunk(List<TransferRequest> chunk, int offset,
+            Long ownerClientId, BooleanSupplier active) {
+        return executeChunk(chunk, offset, Collections.nCopies(chunk.size(), ownerClientId),
+                Collections.nCopies(chunk.size(), active));
+    }
+
+    /**
+     * Applies one chunk in a single database transaction, each item on behalf of the
+     * client at the same index of {@code ownerClientIds}. Items failing a business
+     * rule, or whose caller is no longer {@code active} once the locks are held, are
+     * reported individually without rolling back the rest of the chunk; a technical
+     * failure marks every item of the chunk as not executed.
+     */
+    public List<BatchTransferItemResultDTO> executeChunk(List<TransferRequest> chunk, int offset,
+            List<Long> ownerClientIds, List<BooleanSupplier> active) {
+        if (transferLedger.isEnabled()) {
+            return appendChunk(chunk, offset, ownerClientIds, active);
+        }
+        Set<String> ribs = new LinkedHashSet<>();
+        for (TransferRequest request : chunk) {
+            if (StringUtils.hasText(request.getSourceRib())) {
+                ribs.add(request.getSourceRib());
+            }
+            if (StringUtils.hasText(request.getDestinationRib())) {
+                ribs.add(request.getDestinationRib());
+            }
+        }
+
+        try {
+            return optimisticRetryExecutor.execute(ribs, () -> {
+                if (!localLockEnabled) {
+                    return transactionTemplate.execute(status -> applyChunk(chunk, offset, ownerClientIds, active, ribs));
+                }
+                return accountLockManager.executeWithLocks(hotAccountBalances.ribsToLock(chunk),
+                        () -> transactionTemplate.execute(status -> applyChunk(chunk, offset, ownerClientIds, active, ribs)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Batch transfer chunk starting at item {} failed: {}", offset, e.getMessage());
+            String message = e instanceof BusinessException
+                    ? e.getMessage()
+                    : "Erreur technique, virement non effectué";
+            List<BatchTransferItemResultDTO> failures = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                failures.add(result(offset + i, chunk.get(i), false, message));
+            }
+            return failures;
+        }
+    }
+
+    // Journal-first: one append per item, then one journal force and projection wait for the chunk
+    private List<BatchTransferItemResultDTO> appendChunk(List<TransferRequest> chunk, int offset,
+            List<Long> ownerClientIds, List<BooleanSupplier> active) {
+        List<BatchTransferItemResultDTO> results = new ArrayList<>(chunk.size());
+        long lastSequence = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            try {
+                if (!active.get(i).getAsBoolean()) {
+                    throw new BusinessException(ABANDONED);
+                }
+                validate(request);
+                lastSequence = transferLedger.append(request, ownerClientIds.get(i));
+                results.add(result(offset + i, request, true, "Virement effectué avec succès"));
+            } catch (BusinessException | ResourceNotFoundException e) {
+                results.add(result(offset + i, request, false, e.getMessage()));
+            }
+        }
+        if (lastSequence > 0) {
+            transferLedger.awaitProjected(lastSequence);
+        }
+        return results;
+    }
+
+    private List<BatchTransferItemResultDTO> applyChunk(List<TransferRequest> chunk, int offset,
+            List<Long> ownerClientIds, List<BooleanSupplier> active, Set<String> ribs) {
+        // One IN query resolves every account referenced by the chunk
+        Map<String, Account> accounts = ribs.isEmpty()
+                ? Map.of()
+                : accountRepository.findByRibIn(ribs).stream()
+                        .collect(Collectors.toMap(Account::getRib, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BatchTransferItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<Transaction> transactions = new ArrayList<>(chunk.size() * 2);
+        Map<Long, Account> modifiedAccounts = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            try {
+                if (!active.get(i).getAsBoolean()) {
+                    throw new BusinessException(ABANDONED);
+                }
+                validate(request);
+                Account sourceAccount = findAccount(accounts, request.getSourceRib());
+                Account destinationAccount = findAccount(accounts, request.getDestinationRib());
+
+                transactions.addAll(transferProcessor.apply(sourceAccount, destinationAccount, request,
+                        ownerClientIds.get(i), now));
+                modifiedAccounts.put(sourceAccount.getId(), sourceAccount);
+                modifiedAccounts.put(destinationAccount.getId(), destinationAccount);
+                results.add(result(offset + i, request, true, "Virement effectué avec succès"));
+            } catch (BusinessException e) {
+                results.add(result(offset + i, request, false, e.getMessage()));
+            }
+        }
+
+        accountRepository.saveAll(modifiedAccounts.values());
+        transactionRepository.saveAll(transactions);
+
+        dashboardCache.evictAfterCommit(modifiedAccounts.values().stream()
+                .map(Account::getClientId)
+                .collect(Collectors.toSet()));
+        return results;
+    }
+
+    public void validate(TransferRequest request) {
+        if (!StringUtils.hasText(request.getSourceRib())
+                || !StringUtils.hasText(request.getDestinationRib())
+                || !StringUtils.hasText(request.getMotif())
+                || request.getAmount() == null
+                || request.getAmount().compareTo(new BigDecimal("0.01")) < 0) {
+            throw new BusinessException("Virement invalide: RIB, montant et motif sont obligatoires");
+        }
+        // Amounts are stored, and journaled, in centimes
+        if (request.getAmount().stripTrailingZeros().scale() > 2
+                || request.getAmount().precision() - request.getAmount().scale() > 13) {
+            throw new BusinessException("Virement invalide: le montant doit avoir au plus 13 chiffres et 2 décimales");
+        }
+    }
+
+    private Account findAccount(Map<String, Account> accounts, String rib) {
+        Account account = accounts.get(rib);
+        if (account == null) {
+            throw new BusinessException("Compte non trouvé: " + rib);
+        }
+        return account;
+    }
+
+    /**
+     * Parses a transfer file with one transfer per line:
+     * {@code sourceRib;destinationRib;amount;motif} (comma separators are accepted too).
+     * Malformed lines are kept so they show up as failed items in the report.
+     */
+    public List<TransferRequest> parseTransferFile(InputStream inputStream) {
+        List<TransferRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                if (first && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                if (first && line.toLowerCase().startsWith("sourcerib")) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                requests.add(parseLine(line));
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Impossible de lire le fichier de virements");
+        }
+        return requests;
+    }
+
+    private TransferRequest parseLine(String line) {
+        String separator = line.indexOf(';') >= 0 ? ";" : ",";
+        String[] fields = line.split(separator, 4);
+        TransferRequest request = new TransferRequest();
+        request.setSourceRib(fields.length > 0 ? fields[0].trim() : null);
+        request.setDestinationRib(fields.length > 1 ? fields[1].trim() : null);
+        if (fields.length > 2) {
+            try {
+                request.setAmount(new BigDecimal(fields[2].trim()));
+            } catch (NumberFormatException e) {
+                request.setAmount(null);
+            }
+        }
+        request.setMotif(fields.length > 3 ? fields[3].trim() : null);
+        return request;
+    }
+
+    private BatchTransferItemResultDTO result(int index, TransferRequest request, boolean success, String message) {
+        return BatchTransferItemResultDTO.builder()
+                .index(index)
+                .sourceRib(request.getSourceRib())
+                .destinationRib(request.getDestinationRib())
+                .amount(request.getAmount())
+                .success(success)
+                .message(message)
+                .build();
+    }
+}
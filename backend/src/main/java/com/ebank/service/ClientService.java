@@ -1,5 +1,6 @@
 package com.ebank.service;
 
+import com.ebank.datasource.ReadYourWritesTracker;
 import com.ebank.dto.ClientDTO;
 import com.ebank.dto.CreateClientRequest;
 import com.ebank.entity.Client;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +27,7 @@ public class ClientService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ReadYourWritesTracker readYourWrites;
 
     @Transactional
     public ClientDTO createClient(CreateClientRequest request) {
@@ -69,6 +72,7 @@ public class ClientService {
                 .build();
 
         client = clientRepository.save(client);
+        readYourWrites.recordCurrentUserWrite();
 
         // RG_7: Send email with credentials
         emailService.sendCredentials(request.getEmail(), username, rawPassword);
@@ -76,12 +80,24 @@ public class ClientService {
         return mapToDTO(client);
     }
 
+    @Transactional(readOnly = true)
     public List<ClientDTO> getAllClients() {
-        return clientRepository.findAll().stream()
+        return clientRepository.findAllWithUser().stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<ClientDTO> getClientsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return clientRepository.findWithUserByIdIn(ids).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
     public ClientDTO getClientByIdentityNumber(String identityNumber) {
         Client client = clientRepository.findByIdentityNumber(identityNumber)
                 .orElseThrow(() -> new BusinessException("Client non trouvé"));
@@ -113,7 +129,7 @@ public class ClientService {
         return password.toString();
     }
 
-    private ClientDTO mapToDTO(Client client) {
+    ClientDTO mapToDTO(Client client) {
         return ClientDTO.builder()
                 .id(client.getId())
                 .firstName(client.getFirstName())
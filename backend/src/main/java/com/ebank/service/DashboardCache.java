@@ -0,0 +1,152 @@
+package com.ebank.service;
+
+import com.ebank.dto.AccountDTO;
+import com.ebank.dto.TransactionDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-client snapshots of the dashboard payload. Balance-changing writes evict the
+ * affected clients once their transaction has committed; a generation counter per
+ * client makes sure a load that raced with such a write is never stored.
+ * Snapshots and evictions are local to the instance: with several instances behind
+ * a load balancer, a write on one leaves the others' snapshots stale for up to
+ * {@code ttl-seconds}, so the cache is only exact on a single instance.
+ */
+@Component
+public class DashboardCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, Long> clientIdsByUsername;
+    private final Cache<Long, DashboardSnapshot> snapshots;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray evictedAt = new AtomicLongArray(GENERATION_STRIPES);
+
+    public DashboardCache(@Value("${dashboard.cache.max-size:10000}") long maxSize,
+            @Value("${dashboard.cache.ttl-seconds:60}") long ttlSeconds) {
+        // Expires too, so a user re-linked to another client is picked up
+        this.clientIdsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Long getClientId(String username, Supplier<Long> loader) {
+        return clientIdsByUsername.get(username, key -> loader.get());
+    }
+
+    public DashboardSnapshot getSnapshot(Long clientId, Supplier<List<AccountDTO>> loader) {
+        DashboardSnapshot cached = snapshots.getIfPresent(clientId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation(clientId);
+        DashboardSnapshot loaded = new DashboardSnapshot(loader.get(), generation);
+        // Runs under the same per-key lock as evict(), so a concurrent eviction either
+        // happens after this put or makes the generation check fail
+        snapshots.asMap().compute(clientId, (key, current) ->
+                generation(clientId) == generation ? loaded : current);
+        return loaded;
+    }
+
+    public List<TransactionDTO> getRecentTransactions(DashboardSnapshot snapshot, Long clientId, Long accountId,
+            Supplier<List<TransactionDTO>> loader) {
+        List<TransactionDTO> cached = snapshot.recentTransactions.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<TransactionDTO> loaded = loader.get();
+        if (generation(clientId) == snapshot.generation) {
+            snapshot.recentTransactions.putIfAbsent(accountId, loaded);
+        }
+        return loaded;
+    }
+
+    public void evict(Long clientId) {
+        snapshots.asMap().compute(clientId, (key, current) -> {
+            generations.incrementAndGet(stripe(clientId));
+            evictedAt.set(stripe(clientId), System.currentTimeMillis());
+            return null;
+        });
+    }
+
+    /**
+     * Whether the client (or another client of the same stripe) was evicted within
+     * the last {@code millis}, i.e. a recent write may not have reached the replicas.
+     */
+    public boolean evictedWithin(Long clientId, long millis) {
+        return System.currentTimeMillis() - evictedAt.get(stripe(clientId)) < millis;
+    }
+
+    /**
+     * Evicts the given clients when the current transaction commits, or right away
+     * when there is no transaction.
+     */
+    public void evictAfterCommit(Collection<Long> clientIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clientIds.forEach(this::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clientIds.forEach(DashboardCache.this::evict);
+            }
+        });
+    }
+
+    public CacheStats getStats() {
+        return snapshots.stats();
+    }
+
+    public long getSize() {
+        return snapshots.estimatedSize();
+    }
+
+    private long generation(Long clientId) {
+        return generations.get(stripe(clientId));
+    }
+
+    private int stripe(Long clientId) {
+        return (int) (clientId & (GENERATION_STRIPES - 1));
+    }
+
+    @Getter
+    public static class DashboardSnapshot {
+        private final List<AccountDTO> accounts;
+        private final BigDecimal totalBalance;
+        private final long generation;
+        private final Map<Long, List<TransactionDTO>> recentTransactions = new ConcurrentHashMap<>();
+
+        private DashboardSnapshot(List<AccountDTO> accounts, long generation) {
+            this.accounts = accounts;
+            this.totalBalance = accounts.stream()
+                    .map(AccountDTO::getBalance)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            this.generation = generation;
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.ebank.service;
 
+import com.ebank.datasource.ReadYourWritesTracker;
 import com.ebank.dto.AccountDTO;
 import com.ebank.dto.DashboardDTO;
 import com.ebank.dto.TransactionDTO;
-import com.ebank.entity.Client;
-import com.ebank.entity.User;
 import com.ebank.exception.BusinessException;
+import com.ebank.repository.AccountRepository;
 import com.ebank.repository.ClientRepository;
 import com.ebank.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -20,17 +21,20 @@ public class DashboardService {
 
     private final UserRepository userRepository;
     private final ClientRepository clientRepository;
-    private final AccountService accountService;
+    private final AccountRepository accountRepository;
     private final TransactionService transactionService;
+    private final DashboardCache dashboardCache;
+    private final ReadYourWritesTracker readYourWrites;
 
+    // Not transactional so cache hits never take a connection; misses load through
+    // the repositories, whose queries run in read-only transactions
     public DashboardDTO getDashboard(String username, Long selectedAccountId) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BusinessException("Utilisateur non trouvé"));
+        Long clientId = dashboardCache.getClientId(username, () -> resolveClientId(username));
 
-        Client client = clientRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new BusinessException("Client non trouvé"));
-
-        List<AccountDTO> allAccounts = accountService.getAccountsByClientId(client.getId());
+        // Accounts are read with one projection query and cached until a write touches them
+        DashboardCache.DashboardSnapshot snapshot = dashboardCache.getSnapshot(clientId,
+                () -> readFresh(clientId, () -> accountRepository.findDashboardAccountsByClientId(clientId)));
+        List<AccountDTO> allAccounts = snapshot.getAccounts();
 
         if (allAccounts.isEmpty()) {
             return DashboardDTO.builder()
@@ -51,19 +55,31 @@ public class DashboardService {
         }
 
         // Get last 10 transactions for selected account
-        List<TransactionDTO> recentTransactions = transactionService
-                .getTop10TransactionsByAccountId(selectedAccount.getId());
-
-        // Calculate total balance
-        BigDecimal totalBalance = allAccounts.stream()
-                .map(AccountDTO::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<TransactionDTO> recentTransactions = dashboardCache.getRecentTransactions(snapshot, clientId,
+                selectedAccount.getId(),
+                () -> readFresh(clientId,
+                        () -> transactionService.getTop10TransactionsByAccountId(selectedAccount.getId())));
 
         return DashboardDTO.builder()
                 .account(selectedAccount)
                 .recentTransactions(recentTransactions)
                 .allAccounts(allAccounts)
-                .totalBalance(totalBalance)
+                .totalBalance(snapshot.getTotalBalance())
                 .build();
     }
+
+    // A snapshot reloaded right after a write is cached, so it must not come from a lagging replica
+    private <T> T readFresh(Long clientId, Supplier<T> loader) {
+        return readYourWrites.readFromPrimaryIf(
+                dashboardCache.evictedWithin(clientId, readYourWrites.getWindowMs()), loader);
+    }
+
+    private Long resolveClientId(String username) {
+        return clientRepository.findIdByUsername(username).orElseThrow(() -> {
+            if (!userRepository.existsByUsername(username)) {
+                return new BusinessException("Utilisateur non trouvé");
+            }
+            return new BusinessException("Client non trouvé");
+        });
+    }
 }
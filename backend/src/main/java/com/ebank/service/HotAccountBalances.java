@@ -0,0 +1,229 @@
+package com.ebank.service;
+
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountBalanceSlot;
+import com.ebank.repository.AccountBalanceSlotRepository;
+import com.ebank.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in sharding of hot destination accounts ({@code transfer.hot-accounts.ribs}).
+ * Credits to such an account go to one of its balance slots instead of its row, so
+ * concurrent credits neither serialize on the account row nor on its in-JVM lock;
+ * a scheduled task folds the slots into the balance. Debits still update the
+ * versioned account row, and RG_12 is checked against the balance plus the slots.
+ */
+@Component
+@Slf4j
+public class HotAccountBalances {
+
+    private static final Comparator<AccountBalanceSlot.Key> SLOT_ORDER = Comparator
+            .comparing(AccountBalanceSlot.Key::getAccountId)
+            .thenComparing(AccountBalanceSlot.Key::getSlot);
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository slotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> configuredRibs;
+    private final int slotCount;
+
+    // Hot accounts whose slots exist, by RIB
+    private final Map<String, Long> provisioned = new ConcurrentHashMap<>();
+    private final LongAdder slotCredits = new LongAdder();
+    private final LongAdder folds = new LongAdder();
+
+    public HotAccountBalances(AccountRepository accountRepository, AccountBalanceSlotRepository slotRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${transfer.hot-accounts.ribs:}") List<String> ribs,
+            @Value("${transfer.hot-accounts.slots:16}") int slotCount) {
+        this.accountRepository = accountRepository;
+        this.slotRepository = slotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.configuredRibs = ribs.stream()
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        this.slotCount = Math.max(1, slotCount);
+    }
+
+    public boolean isHot(String rib) {
+        return rib != null && provisioned.containsKey(rib);
+    }
+
+    /**
+     * RIBs to lock in the JVM for these transfers: every source account, and the
+     * destination accounts that are not hot, since slot credits need no lock.
+     */
+    public Set<String> ribsToLock(Collection<TransferRequest> requests) {
+        Set<String> ribs = new LinkedHashSet<>();
+        for (TransferRequest request : requests) {
+            if (StringUtils.hasText(request.getSourceRib())) {
+                ribs.add(request.getSourceRib());
+            }
+            if (StringUtils.hasText(request.getDestinationRib()) && !isHot(request.getDestinationRib())) {
+                ribs.add(request.getDestinationRib());
+            }
+        }
+        return ribs;
+    }
+
+    /**
+     * Credits a hot account through a random slot, written just before the current
+     * transaction commits. Returns false when the caller must credit the balance itself.
+     */
+    boolean credit(Account account, BigDecimal amount) {
+        if (!isHot(account.getRib()) || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slotCount);
+        pendingCredits().merge(new AccountBalanceSlot.Key(account.getId(), slot), amount, BigDecimal::add);
+        // Later transfers of the same transaction see the credit
+        BigDecimal slotBalance = account.getSlotBalance();
+        account.setSlotBalance(slotBalance == null ? amount : slotBalance.add(amount));
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<AccountBalanceSlot.Key, BigDecimal> pendingCredits() {
+        Map<AccountBalanceSlot.Key, BigDecimal> credits =
+                (Map<AccountBalanceSlot.Key, BigDecimal>) TransactionSynchronizationManager.getResource(this);
+        if (credits != null) {
+            return credits;
+        }
+        // Written in key order, so concurrent transactions lock slot rows in the same order
+        Map<AccountBalanceSlot.Key, BigDecimal> created = new TreeMap<>(SLOT_ORDER);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                applyCredits(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(HotAccountBalances.this);
+            }
+        });
+        return created;
+    }
+
+    private void applyCredits(Map<AccountBalanceSlot.Key, BigDecimal> credits) {
+        credits.forEach((key, amount) -> {
+            if (slotRepository.addToSlot(key.getAccountId(), key.getSlot(), amount) != 1) {
+                throw new IllegalStateException("Balance slot " + key.getSlot() + " missing for account "
+                        + key.getAccountId());
+            }
+            slotCredits.increment();
+        });
+    }
+
+    /**
+     * Moves every slot amount into its account balance. Slots left by accounts no
+     * longer configured as hot are folded too.
+     */
+    @Scheduled(fixedDelayString = "${transfer.hot-accounts.fold-interval-ms:1000}",
+            initialDelayString = "${transfer.hot-accounts.fold-interval-ms:1000}")
+    public void fold() {
+        provisionSlots();
+        for (Long accountId : slotRepository.findAccountIdsToFold()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> foldAccount(accountId));
+            } catch (OptimisticLockingFailureException e) {
+                // A debit or another instance's fold changed the account meanwhile
+                log.debug("Fold of account {} deferred to the next run: {}", accountId, e.getMessage());
+            }
+        }
+    }
+
+    private void foldAccount(Long accountId) {
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        BigDecimal folded = BigDecimal.ZERO;
+        for (AccountBalanceSlot slot : slotRepository.findByAccountId(accountId)) {
+            if (slot.getAmount().signum() != 0) {
+                // Relative update: credits committed since the read stay in the slot
+                slotRepository.subtractFromSlot(accountId, slot.getSlot(), slot.getAmount());
+                folded = folded.add(slot.getAmount());
+            }
+        }
+        if (folded.signum() == 0) {
+            return;
+        }
+        // The version check rolls the fold back if the account row changed since it was read
+        account.setBalance(account.getBalance().add(folded));
+        accountRepository.save(account);
+        folds.increment();
+    }
+
+    // Accounts become hot once their slots exist; seeded or new accounts are picked up on a later run
+    private void provisionSlots() {
+        for (String rib : configuredRibs) {
+            if (provisioned.containsKey(rib)) {
+                continue;
+            }
+            try {
+                Long accountId = transactionTemplate.execute(status -> accountRepository.findByRib(rib)
+                        .map(account -> {
+                            createMissingSlots(account.getId());
+                            return account.getId();
+                        })
+                        .orElse(null));
+                if (accountId != null) {
+                    provisioned.put(rib, accountId);
+                    log.info("Account {} is hot: credits spread over {} balance slots", rib, slotCount);
+                }
+            } catch (DataAccessException e) {
+                // Usually another instance creating the same slots
+                log.debug("Balance slots of account {} not created yet: {}", rib, e.getMessage());
+            }
+        }
+    }
+
+    private void createMissingSlots(Long accountId) {
+        Set<Integer> existing = slotRepository.findByAccountId(accountId).stream()
+                .map(AccountBalanceSlot::getSlot)
+                .collect(Collectors.toSet());
+        List<AccountBalanceSlot> missing = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!existing.contains(slot)) {
+                missing.add(new AccountBalanceSlot(accountId, slot, BigDecimal.ZERO));
+            }
+        }
+        slotRepository.saveAll(missing);
+    }
+
+    public int getHotAccountCount() {
+        return provisioned.size();
+    }
+
+    public long getSlotCredits() {
+        return slotCredits.sum();
+    }
+
+    public long getFolds() {
+        return folds.sum();
+    }
+}
@@ -0,0 +1,155 @@
+package com.ebank.service;
+
+import com.ebank.dto.AccountContentionDTO;
+import com.ebank.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Re-runs a balance-changing unit of work when another transaction (possibly on
+ * another backend instance) committed a newer version of one of its accounts.
+ * Each run must open its own transaction so the retry reads fresh rows.
+ */
+@Component
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxTrackedAccounts;
+
+    private final Map<String, ContentionStats> statsByRib = new ConcurrentHashMap<>();
+    private final LongAdder totalConflicts = new LongAdder();
+    private final LongAdder totalRetries = new LongAdder();
+    private final LongAdder totalExhausted = new LongAdder();
+
+    public OptimisticRetryExecutor(@Value("${transfer.retry.max-attempts:5}") int maxAttempts,
+            @Value("${transfer.retry.initial-backoff-ms:5}") long initialBackoffMs,
+            @Value("${transfer.retry.max-backoff-ms:200}") long maxBackoffMs,
+            @Value("${transfer.retry.tracked-accounts:10000}") int maxTrackedAccounts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxTrackedAccounts = maxTrackedAccounts;
+    }
+
+    public <T> T execute(Collection<String> ribs, Supplier<T> action) {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            recordAttempt(ribs);
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                totalConflicts.increment();
+                recordConflict(ribs);
+
+                if (attempt >= maxAttempts) {
+                    totalExhausted.increment();
+                    ribs.forEach(rib -> stats(rib).exhausted.increment());
+                    log.warn("Optimistic retry budget exhausted after {} attempts for accounts {}", attempt, ribs);
+                    throw new BusinessException("Le compte est momentanément indisponible, veuillez réessayer");
+                }
+
+                totalRetries.increment();
+                ribs.forEach(rib -> stats(rib).retries.increment());
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min(maxBackoffMs, backoff * 2);
+            }
+        }
+    }
+
+    private void recordAttempt(Collection<String> ribs) {
+        for (String rib : ribs) {
+            ContentionStats stats = statsByRib.get(rib);
+            if (stats != null) {
+                stats.attempts.increment();
+            }
+        }
+    }
+
+    private void recordConflict(Collection<String> ribs) {
+        for (String rib : ribs) {
+            ContentionStats stats = stats(rib);
+            stats.conflicts.increment();
+        }
+    }
+
+    private ContentionStats stats(String rib) {
+        ContentionStats stats = statsByRib.get(rib);
+        if (stats != null) {
+            return stats;
+        }
+        if (statsByRib.size() >= maxTrackedAccounts) {
+            // Keep counting globally without letting the per-account map grow unbounded
+            return new ContentionStats();
+        }
+        return statsByRib.computeIfAbsent(rib, key -> {
+            ContentionStats created = new ContentionStats();
+            // The attempt that just conflicted happened before tracking started
+            created.attempts.increment();
+            return created;
+        });
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Le virement a été interrompu");
+        }
+    }
+
+    public List<AccountContentionDTO> getHotAccounts(int limit) {
+        return statsByRib.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparingLong(AccountContentionDTO::getConflicts).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public long getTotalConflicts() {
+        return totalConflicts.sum();
+    }
+
+    public long getTotalRetries() {
+        return totalRetries.sum();
+    }
+
+    public long getTotalExhausted() {
+        return totalExhausted.sum();
+    }
+
+    private static class ContentionStats {
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+
+        private AccountContentionDTO toDTO(String rib) {
+            long attemptCount = attempts.sum();
+            long conflictCount = conflicts.sum();
+            return AccountContentionDTO.builder()
+                    .rib(rib)
+                    .attempts(attemptCount)
+                    .conflicts(conflictCount)
+                    .retries(retries.sum())
+                    .exhausted(exhausted.sum())
+                    .conflictRate(attemptCount == 0 ? 0.0 : (double) conflictCount / attemptCount)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ebank.service;
+
+import com.ebank.dto.TransactionDTO;
+import com.ebank.exception.BusinessException;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes account statements row by row while they are read from the database,
+ * so heap usage does not depend on the length of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Format d'export non supporté: " + value);
+            }
+        }
+    }
+
+    public void checkAccountExists(Long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException("Compte non trouvé");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Long accountId, LocalDate from, LocalDate to, Format format, OutputStream outputStream)
+            throws IOException {
+        LocalDateTime start = (from != null ? from : EARLIEST).atStartOfDay();
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.now().plusDays(1);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 16 * 1024);
+        long count = 0;
+        try (Stream<TransactionDTO> rows = transactionRepository.streamStatement(accountId, start, end)) {
+            Iterator<TransactionDTO> iterator = rows.iterator();
+            if (format == Format.CSV) {
+                writer.write("id,date,type,amount,label\n");
+                while (iterator.hasNext()) {
+                    writeCsv(writer, iterator.next());
+                    count++;
+                }
+            } else {
+                SequenceWriter sequenceWriter = objectMapper.writer()
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer);
+                while (iterator.hasNext()) {
+                    sequenceWriter.write(iterator.next());
+                    count++;
+                }
+                sequenceWriter.flush();
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsv(Writer writer, TransactionDTO transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(transaction.getDate().toString());
+        writer.write(',');
+        writer.write(transaction.getType());
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write('"');
+        writer.write(transaction.getLabel().replace("\"", "\"\""));
+        writer.write("\"\n");
+    }
+}
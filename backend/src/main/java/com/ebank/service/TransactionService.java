@@ -1,100 +1,199 @@
 package com.ebank.service;
 
+import com.ebank.datasource.ReadYourWritesTracker;
 import com.ebank.dto.TransactionDTO;
+import com.ebank.dto.TransactionPageDTO;
 import com.ebank.dto.TransferRequest;
 import com.ebank.entity.Account;
-import com.ebank.entity.AccountStatus;
 import com.ebank.entity.Transaction;
-import com.ebank.entity.TransactionType;
 import com.ebank.exception.BusinessException;
+import com.ebank.ledger.TransferLedger;
 import com.ebank.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
-
+    private final TransferProcessor transferProcessor;
+    private final DashboardCache dashboardCache;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWrites;
+    private final TransferSequencer transferSequencer;
+    private final BatchTransferService batchTransferService;
+    private final TransferLedger transferLedger;
+    private final HotAccountBalances hotAccountBalances;
+
+    @Value("${transfer.lock.enabled:true}")
+    private boolean localLockEnabled;
+
+    @Transactional(readOnly = true)
     public Page<TransactionDTO> getTransactionsByAccountId(Long accountId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return transactionRepository.findByAccountIdOrderByDateDesc(accountId, pageable)
                 .map(this::mapToDTO);
     }
 
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getTop10TransactionsByAccountId(Long accountId) {
-        return transactionRepository.findTop10ByAccountIdOrderByDateDesc(accountId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findRecentByAccountId(accountId, PageRequest.of(0, 10));
     }
 
-    @Transactional
-    public void executeTransfer(TransferRequest request, String username) {
-        Account sourceAccount = accountService.getAccountEntityByRib(request.getSourceRib());
-        Account destinationAccount = accountService.getAccountEntityByRib(request.getDestinationRib());
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getTransactionsAfterCursor(Long accountId, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether another page exists without counting
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<TransactionDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = transactionRepository.findRecentByAccountId(accountId, pageable);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageBefore(accountId, position.date(), position.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<TransactionDTO> items = hasMore ? rows.subList(0, limit) : rows;
+        TransactionDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
 
-        // RG_11: Account must not be blocked or closed
-        if (sourceAccount.getStatus() != AccountStatus.OPEN) {
-            throw new BusinessException("Le compte bancaire est bloqué ou clôturé");
+        return TransactionPageDTO.builder()
+                .items(items)
+                .nextCursor(last != null ? TransactionCursor.encode(last.getDate(), last.getId()) : cursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * First page of several accounts at once: one windowed query instead of one
+     * query per account. Accounts without transactions get an empty page.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, TransactionPageDTO> getFirstPages(Collection<Long> accountIds, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Map<Long, List<TransactionDTO>> rowsByAccount = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            for (TransactionRepository.RankedTransaction row
+                    : transactionRepository.findRecentByAccountIdIn(accountIds, limit + 1)) {
+                rowsByAccount.computeIfAbsent(row.getAccountId(), key -> new ArrayList<>())
+                        .add(new TransactionDTO(row.getId(), row.getType(), row.getAmount(), row.getLabel(),
+                                row.getDate()));
+            }
         }
 
-        if (destinationAccount.getStatus() != AccountStatus.OPEN) {
-            throw new BusinessException("Le compte destinataire est bloqué ou clôturé");
+        Map<Long, TransactionPageDTO> pages = new HashMap<>();
+        for (Long accountId : accountIds) {
+            List<TransactionDTO> rows = rowsByAccount.getOrDefault(accountId, List.of());
+            boolean hasMore = rows.size() > limit;
+            List<TransactionDTO> items = hasMore ? rows.subList(0, limit) : rows;
+            TransactionDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
+            pages.put(accountId, TransactionPageDTO.builder()
+                    .items(items)
+                    .nextCursor(last != null ? TransactionCursor.encode(last.getDate(), last.getId()) : null)
+                    .hasMore(hasMore)
+                    .build());
         }
+        return pages;
+    }
 
-        // RG_12: Balance must be greater than transfer amount
-        if (sourceAccount.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new BusinessException("Le solde de compte doit être supérieur au montant du virement");
+    public void executeTransfer(TransferRequest request, String username) {
+        executeTransfer(request, username, BatchTransferService.ALWAYS_ACTIVE);
+    }
+
+    /**
+     * {@code active} is checked again once the transfer has waited for its locks or its
+     * sequencer batch, inside the transaction: a caller that has given up by then gets
+     * a {@link BusinessException} and nothing is written.
+     */
+    public void executeTransfer(TransferRequest request, String username, BooleanSupplier active) {
+        batchTransferService.validate(request);
+        Long ownerClientId = accountService.getClientIdByUsername(username);
+        if (transferLedger.isEnabled()) {
+            // The journal force already groups concurrent transfers, so the sequencer is not used
+            if (!active.getAsBoolean()) {
+                throw new BusinessException(BatchTransferService.ABANDONED);
+            }
+            transferLedger.awaitProjected(transferLedger.append(request, ownerClientId));
+        } else if (transferSequencer.isEnabled()) {
+            awaitSequenced(transferSequencer.submit(request, ownerClientId, active));
+        } else {
+            executeDirectly(request, ownerClientId, active);
         }
+        // The user's next reads go to the primary until replicas have the transfer
+        readYourWrites.recordWrite(username);
+    }
 
-        // Cannot transfer to same account
-        if (sourceAccount.getRib().equals(destinationAccount.getRib())) {
-            throw new BusinessException("Impossible d'effectuer un virement vers le même compte");
+    // Waits for the group commit; the transfer cannot be withdrawn once queued
+    private void awaitSequenced(CompletableFuture<Void> result) {
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw e;
         }
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    private void executeDirectly(TransferRequest request, Long ownerClientId, BooleanSupplier active) {
+        // Account rows are versioned: a concurrent write from this or another instance
+        // makes the commit fail, and the whole transfer is replayed on fresh rows
+        optimisticRetryExecutor.execute(List.of(request.getSourceRib(), request.getDestinationRib()), () -> {
+            if (!localLockEnabled) {
+                transactionTemplate.executeWithoutResult(status -> doTransfer(request, ownerClientId, active));
+                return null;
+            }
+            // Locks are held until the transaction has committed so the next transfer
+            // on the same account always reads the committed balance
+            return accountLockManager.executeWithLocks(hotAccountBalances.ribsToLock(List.of(request)), () -> {
+                transactionTemplate.executeWithoutResult(status -> doTransfer(request, ownerClientId, active));
+                return null;
+            });
+        });
+    }
 
-        // RG_13: Debit source account
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(request.getAmount()));
-        accountService.updateBalance(sourceAccount);
+    private void doTransfer(TransferRequest request, Long ownerClientId, BooleanSupplier active) {
+        if (!active.getAsBoolean()) {
+            throw new BusinessException(BatchTransferService.ABANDONED);
+        }
+        Account sourceAccount = accountService.getAccountEntityByRib(request.getSourceRib());
+        Account destinationAccount = accountService.getAccountEntityByRib(request.getDestinationRib());
+
+        List<Transaction> transactions = transferProcessor.apply(
+                sourceAccount, destinationAccount, request, ownerClientId, LocalDateTime.now());
 
-        // RG_14: Credit destination account
-        destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
+        accountService.updateBalance(sourceAccount);
         accountService.updateBalance(destinationAccount);
+        transactionRepository.saveAll(transactions);
 
-        // RG_15: Create DEBIT transaction for source
-        Transaction debitTransaction = Transaction.builder()
-                .type(TransactionType.DEBIT)
-                .amount(request.getAmount())
-                .label("Virement émis vers " + destinationAccount.getRib() + " - " + request.getMotif())
-                .date(now)
-                .account(sourceAccount)
-                .build();
-        transactionRepository.save(debitTransaction);
-
-        // RG_15: Create CREDIT transaction for destination
-        Transaction creditTransaction = Transaction.builder()
-                .type(TransactionType.CREDIT)
-                .amount(request.getAmount())
-                .label("Virement en votre faveur de " + sourceAccount.getRib() + " - " + request.getMotif())
-                .date(now)
-                .account(destinationAccount)
-                .build();
-        transactionRepository.save(creditTransaction);
+        dashboardCache.evictAfterCommit(List.of(sourceAccount.getClientId(), destinationAccount.getClientId()));
     }
 
-    private TransactionDTO mapToDTO(Transaction transaction) {
+    TransactionDTO mapToDTO(Transaction transaction) {
         return TransactionDTO.builder()
                 .id(transaction.getId())
                 .type(transaction.getType().name())
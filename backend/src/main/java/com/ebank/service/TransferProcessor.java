@@ -0,0 +1,113 @@
+package com.ebank.service;
+
+import com.ebank.dto.TransferRequest;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountStatus;
+import com.ebank.entity.Transaction;
+import com.ebank.entity.TransactionType;
+import com.ebank.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies the transfer business rules (RG_11 to RG_15) to already loaded accounts,
+ * on behalf of the client who must own the source account.
+ * Balances are updated in place and the two ledger lines are returned unsaved so
+ * callers can persist them one by one or in bulk. Hot destination accounts are
+ * credited through their balance slots instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferProcessor {
+
+    // Length of transactions.label
+    private static final int LABEL_LENGTH = 255;
+
+    private final HotAccountBalances hotAccountBalances;
+
+    public List<Transaction> apply(Account sourceAccount, Account destinationAccount,
+            TransferRequest request, Long ownerClientId, LocalDateTime now) {
+        check(sourceAccount, destinationAccount, request, ownerClientId);
+        return post(sourceAccount, destinationAccount, request, now);
+    }
+
+    /**
+     * Checks the transfer against the accounts without changing them.
+     */
+    public void check(Account sourceAccount, Account destinationAccount, TransferRequest request,
+            Long ownerClientId) {
+        if (!sourceAccount.getClientId().equals(ownerClientId)) {
+            throw new BusinessException("Le compte source n'appartient pas au client connecté");
+        }
+
+        // RG_11: Account must not be blocked or closed
+        if (sourceAccount.getStatus() != AccountStatus.OPEN) {
+            throw new BusinessException("Le compte bancaire est bloqué ou clôturé");
+        }
+
+        if (destinationAccount.getStatus() != AccountStatus.OPEN) {
+            throw new BusinessException("Le compte destinataire est bloqué ou clôturé");
+        }
+
+        // RG_12: Balance must be greater than transfer amount, unfolded slot credits included
+        if (sourceAccount.getAvailableBalance().compareTo(request.getAmount()) < 0) {
+            throw new BusinessException("Le solde de compte doit être supérieur au montant du virement");
+        }
+
+        // Cannot transfer to same account
+        if (sourceAccount.getRib().equals(destinationAccount.getRib())) {
+            throw new BusinessException("Impossible d'effectuer un virement vers le même compte");
+        }
+
+        if (debitLabel(destinationAccount, request).length() > LABEL_LENGTH
+                || creditLabel(sourceAccount, request).length() > LABEL_LENGTH) {
+            throw new BusinessException("Le motif du virement est trop long");
+        }
+    }
+
+    /**
+     * Moves the money and builds the ledger lines of a transfer that already passed
+     * {@link #check}.
+     */
+    public List<Transaction> post(Account sourceAccount, Account destinationAccount,
+            TransferRequest request, LocalDateTime now) {
+        // RG_13: Debit source account; a hot account's row may go below zero until its slots are folded
+        sourceAccount.setBalance(sourceAccount.getBalance().subtract(request.getAmount()));
+
+        // RG_14: Credit destination account
+        if (!hotAccountBalances.credit(destinationAccount, request.getAmount())) {
+            destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
+        }
+
+        // RG_15: Create DEBIT transaction for source
+        Transaction debitTransaction = Transaction.builder()
+                .type(TransactionType.DEBIT)
+                .amount(request.getAmount())
+                .label(debitLabel(destinationAccount, request))
+                .date(now)
+                .account(sourceAccount)
+                .build();
+
+        // RG_15: Create CREDIT transaction for destination
+        Transaction creditTransaction = Transaction.builder()
+                .type(TransactionType.CREDIT)
+                .amount(request.getAmount())
+                .label(creditLabel(sourceAccount, request))
+                .date(now)
+                .account(destinationAccount)
+                .build();
+
+        return List.of(debitTransaction, creditTransaction);
+    }
+
+    private static String debitLabel(Account destinationAccount, TransferRequest request) {
+        return "Virement émis vers " + destinationAccount.getRib() + " - " + request.getMotif();
+    }
+
+    private static String creditLabel(Account sourceAccount, TransferRequest request) {
+        return "Virement en votre faveur de " + sourceAccount.getRib() + " - " + request.getMotif();
+    }
+}
@@ -0,0 +1,192 @@
+package com.ebank.service;
+
+import com.ebank.dto.BatchTransferItemResultDTO;
+import com.ebank.dto.TransferRequest;
+import com.ebank.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Group commit for single transfers: callers enqueue their transfer and a single
+ * writer thread applies whatever is queued, up to {@code batch-size} transfers, in
+ * one database transaction, so many transfers share one commit. Each caller's future
+ * completes with its own outcome; a transfer rejected by a business rule (RG_11,
+ * RG_12, ...) does not affect the others of its batch.
+ */
+@Component
+@Slf4j
+public class TransferSequencer {
+
+    private final BatchTransferService batchTransferService;
+    private final BlockingQueue<PendingTransfer> queue;
+
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final int capacity;
+    private final int batchSize;
+    private final long maxLingerNanos;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sequencedTransfers = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    public TransferSequencer(BatchTransferService batchTransferService,
+            @Value("${transfer.sequencer.enabled:false}") boolean enabled,
+            @Value("${transfer.sequencer.queue-capacity:10000}") int capacity,
+            @Value("${transfer.sequencer.batch-size:200}") int batchSize,
+            @Value("${transfer.sequencer.max-linger-ms:2}") long maxLingerMs) {
+        this.batchTransferService = batchTransferService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "transfer-sequencer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // The writer finishes its current batch and notices within one poll interval
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        writer.interrupt();
+
+        List<PendingTransfer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result.completeExceptionally(
+                new BusinessException("Le service de virement est arrêté, virement non effectué")));
+    }
+
+    /**
+     * Queues the transfer; the future completes once its batch has committed, or
+     * exceptionally with the {@link BusinessException} that rejected it, including
+     * when {@code active} no longer holds once its batch has its locks.
+     */
+    public CompletableFuture<Void> submit(TransferRequest request, Long ownerClientId, BooleanSupplier active) {
+        batchTransferService.validate(request);
+        PendingTransfer pending = new PendingTransfer(request, ownerClientId, active, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new BusinessException("Le service de virement est saturé, veuillez réessayer");
+        }
+        return pending.result;
+    }
+
+    private void drain() {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingTransfer first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new BusinessException("Le service de virement est arrêté, virement non effectué")));
+            } catch (RuntimeException e) {
+                log.error("Transfer sequencer batch failed: {}", e.getMessage());
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new BusinessException("Erreur technique, virement non effectué")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Takes what is already queued, then waits up to the linger time for a full batch
+    private void fill(List<PendingTransfer> batch) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + maxLingerNanos;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void apply(List<PendingTransfer> batch) {
+        List<TransferRequest> requests = new ArrayList<>(batch.size());
+        List<Long> ownerClientIds = new ArrayList<>(batch.size());
+        List<BooleanSupplier> active = new ArrayList<>(batch.size());
+        batch.forEach(pending -> {
+            requests.add(pending.request);
+            ownerClientIds.add(pending.ownerClientId);
+            active.add(pending.active);
+        });
+
+        List<BatchTransferItemResultDTO> results = batchTransferService.executeChunk(requests, 0, ownerClientIds,
+                active);
+        for (BatchTransferItemResultDTO result : results) {
+            PendingTransfer pending = batch.get(result.getIndex());
+            if (result.isSuccess()) {
+                pending.result.complete(null);
+            } else {
+                pending.result.completeExceptionally(new BusinessException(result.getMessage()));
+            }
+        }
+        batches.increment();
+        sequencedTransfers.add(batch.size());
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getSequencedTransfers() {
+        return sequencedTransfers.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private record PendingTransfer(TransferRequest request, Long ownerClientId, BooleanSupplier active,
+            CompletableFuture<Void> result) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.ebank.soap;
 
 import com.ebank.dto.AccountDTO;
+import com.ebank.dto.AccountLookupResultDTO;
 import com.ebank.dto.CreateAccountRequest;
 import com.ebank.service.AccountService;
 import com.ebank.soap.generated.*;
@@ -17,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.GregorianCalendar;
+import java.util.List;
 
 @Endpoint
 @RequiredArgsConstructor
@@ -46,6 +48,26 @@ public class AccountEndpoint {
         return response;
     }
 
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getAccountsByRibsRequest")
+    @ResponsePayload
+    public GetAccountsByRibsResponse getAccountsByRibs(@RequestPayload GetAccountsByRibsRequest request) {
+        List<AccountLookupResultDTO> results = accountService.getAccountsByRibs(request.getRib());
+
+        GetAccountsByRibsResponse response = new GetAccountsByRibsResponse();
+        results.forEach(result -> response.getResult().add(mapToLookupResultType(result)));
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getAccountsByIdsRequest")
+    @ResponsePayload
+    public GetAccountsByIdsResponse getAccountsByIds(@RequestPayload GetAccountsByIdsRequest request) {
+        List<AccountLookupResultDTO> results = accountService.getAccountsByIds(request.getId());
+
+        GetAccountsByIdsResponse response = new GetAccountsByIdsResponse();
+        results.forEach(result -> response.getResult().add(mapToLookupResultType(result)));
+        return response;
+    }
+
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "createAccountRequest")
     @ResponsePayload
     public CreateAccountResponse createAccount(@RequestPayload com.ebank.soap.generated.CreateAccountRequest request) {
@@ -60,7 +82,17 @@ public class AccountEndpoint {
         return response;
     }
 
-    private AccountType mapToAccountType(AccountDTO dto) {
+    private AccountLookupResultType mapToLookupResultType(AccountLookupResultDTO result) {
+        AccountLookupResultType resultType = new AccountLookupResultType();
+        resultType.setKey(result.getKey());
+        resultType.setFound(result.isFound());
+        if (result.isFound()) {
+            resultType.setAccount(mapToAccountType(result.getAccount()));
+        }
+        return resultType;
+    }
+
+    AccountType mapToAccountType(AccountDTO dto) {
         AccountType accountType = new AccountType();
         accountType.setId(dto.getId());
         accountType.setRib(dto.getRib());
@@ -0,0 +1,104 @@
+package db.migration.mysql;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Brings a database created by Hibernate before Flyway (baselined at version 1) up
+ * to the V1 schema; on a database created by V1 it only re-seeds the id tables.
+ * Written against JDBC metadata because MySQL has no {@code IF NOT EXISTS} for
+ * columns and indexes.
+ */
+public class V1_1__Upgrade_pre_flyway_schema extends BaseJavaMigration {
+
+    // allocationSize of the entity @SequenceGenerators
+    private static final long ALLOCATION_SIZE = 50;
+
+    private static final List<String> TABLES = List.of("users", "clients", "accounts", "transactions");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                seedIdTable(statement, table);
+            }
+
+            // Optimistic locking version, added after the first releases
+            if (!hasColumn(connection, metaData, "accounts", "version")) {
+                statement.execute("ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            } else {
+                statement.executeUpdate("UPDATE accounts SET version = 0 WHERE version IS NULL");
+            }
+            // Token revocation registry; V2 indexes updated_at
+            if (!hasColumn(connection, metaData, "users", "credentials_changed_at")) {
+                statement.execute("ALTER TABLE users ADD COLUMN credentials_changed_at DATETIME(6)");
+            }
+            if (!hasColumn(connection, metaData, "users", "updated_at")) {
+                statement.execute("ALTER TABLE users ADD COLUMN updated_at DATETIME(6)");
+            }
+            if (!hasIndex(connection, metaData, "transactions", "idx_transactions_account_date_id")) {
+                statement.execute("CREATE INDEX idx_transactions_account_date_id ON transactions (account_id, date, id)");
+            }
+        }
+    }
+
+    /**
+     * Hibernate's pooled optimizer hands out the ids {@code (next_val - ALLOCATION_SIZE, next_val]}
+     * for the value it reads, so next_val must be at least MAX(id) + ALLOCATION_SIZE for new
+     * ids to start above the existing rows. It is never lowered.
+     */
+    private static void seedIdTable(Statement statement, String table) throws SQLException {
+        String idTable = table + "_seq";
+        statement.execute("CREATE TABLE IF NOT EXISTS " + idTable + " (next_val BIGINT NOT NULL) ENGINE = InnoDB");
+
+        long maxId = queryLong(statement, "SELECT COALESCE(MAX(id), 0) FROM " + table);
+        long rows = queryLong(statement, "SELECT COUNT(*) FROM " + idTable);
+        if (rows == 0) {
+            statement.executeUpdate("INSERT INTO " + idTable + " VALUES (" + (maxId + ALLOCATION_SIZE) + ")");
+        } else {
+            statement.executeUpdate("UPDATE " + idTable + " SET next_val = GREATEST(next_val, "
+                    + (maxId + ALLOCATION_SIZE) + ")");
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, DatabaseMetaData metaData, String table, String column)
+            throws SQLException {
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static boolean hasIndex(Connection connection, DatabaseMetaData metaData, String table, String index)
+            throws SQLException {
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                false, false)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
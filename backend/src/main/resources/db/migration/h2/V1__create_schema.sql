@@ -0,0 +1,57 @@
+-- Initial schema, matching the JPA entities
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE clients_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id BIGINT NOT NULL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    credentials_changed_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE clients (
+    id BIGINT NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    identity_number VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    address VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    CONSTRAINT uk_clients_identity_number UNIQUE (identity_number),
+    CONSTRAINT uk_clients_email UNIQUE (email),
+    CONSTRAINT uk_clients_user UNIQUE (user_id),
+    CONSTRAINT fk_clients_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE accounts (
+    id BIGINT NOT NULL PRIMARY KEY,
+    rib VARCHAR(255) NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    version BIGINT NOT NULL,
+    client_id BIGINT NOT NULL,
+    CONSTRAINT uk_accounts_rib UNIQUE (rib),
+    CONSTRAINT fk_accounts_client FOREIGN KEY (client_id) REFERENCES clients (id)
+);
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    label VARCHAR(255) NOT NULL,
+    date TIMESTAMP(6) NOT NULL,
+    account_id BIGINT NOT NULL,
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
+
+CREATE INDEX idx_transactions_account_date_id ON transactions (account_id, date, id);
@@ -0,0 +1,7 @@
+-- Stamped by the primary, read back from each replica to measure replication lag
+CREATE TABLE replication_heartbeat (
+    id INT NOT NULL PRIMARY KEY,
+    beat_at TIMESTAMP(3) NOT NULL
+);
+
+INSERT INTO replication_heartbeat VALUES (1, CURRENT_TIMESTAMP(3));
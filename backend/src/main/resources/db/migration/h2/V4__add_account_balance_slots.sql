@@ -0,0 +1,8 @@
+-- Sub-balances of hot accounts, folded periodically into accounts.balance
+CREATE TABLE account_balance_slots (
+    account_id BIGINT NOT NULL,
+    slot INT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (account_id, slot),
+    CONSTRAINT fk_account_balance_slots_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
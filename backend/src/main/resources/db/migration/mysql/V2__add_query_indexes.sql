@@ -0,0 +1,6 @@
+-- Accounts of a client, newest first (findByClientIdOrderByCreatedAtDesc, dashboard projections).
+-- Replaces the single-column index InnoDB created for fk_accounts_client.
+CREATE INDEX idx_accounts_client_created ON accounts (client_id, created_at);
+
+-- Incremental refresh of the token revocation registry (findByUpdatedAtAfter)
+CREATE INDEX idx_users_updated_at ON users (updated_at);
@@ -0,0 +1,7 @@
+-- Last ledger journal record written to the database, committed with the records it covers
+CREATE TABLE ledger_checkpoint (
+    id INT NOT NULL PRIMARY KEY,
+    projected_sequence BIGINT NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO ledger_checkpoint VALUES (1, 0);
@@ -0,0 +1,52 @@
+package com.ebank.benchmark;
+
+import com.ebank.EbankApplication;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Boots the backend against a private in-memory H2 database for benchmarks,
+ * without the HTTP, gRPC and H2 console servers and with quiet logging.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Starts the application; an extra argument replaces the default for the same property.
+     */
+    public static ConfigurableApplicationContext startContext(String... extraArgs) {
+        List<String> defaults = List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--grpc.server.port=-1",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ebank=WARN");
+        Map<String, String> args = new LinkedHashMap<>();
+        Stream.concat(defaults.stream(), Stream.of(extraArgs))
+                .forEach(arg -> args.put(arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg, arg));
+
+        SpringApplication application = new SpringApplication(EbankApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run(args.values().toArray(new String[0]));
+    }
+
+    /**
+     * Unwraps Spring AOP proxies so benchmarks measure the bean itself.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T target(T bean) {
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? (T) target : bean;
+    }
+}
@@ -0,0 +1,255 @@
+package com.ebank.perf;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.dto.TransferRequest;
+import com.ebank.exception.BusinessException;
+import com.ebank.ledger.LedgerEvent;
+import com.ebank.ledger.LedgerJournal;
+import com.ebank.ledger.TransferLedger;
+import com.ebank.repository.AccountRepository;
+import com.ebank.service.TransactionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Runs concurrent transfers with the ledger journal enabled and checks, once the
+ * projector has caught up, that the database balances match a replay of the
+ * journal. It then simulates a crash by appending transfers that are durable in the
+ * journal but never reached the database, followed by a torn record, restarts on the
+ * same database and journal, and checks that the startup projection wrote them and
+ * that point-in-time rebuilds are unchanged. Last, it blocks an account and corrects
+ * a balance directly in the database and checks that the next transfers see both.
+ * Exits with a non-zero status on any mismatch.
+ */
+public final class LedgerRecoveryCheck {
+
+    private static final String RIB_1 = "MA64001128000012345678901234";
+    private static final String RIB_2 = "MA64001128000098765432109876";
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 750;
+    private static final int CRASHED_TRANSFERS = 3;
+    private static final long PROJECTION_TIMEOUT_MS = 30_000;
+
+    private final Map<String, BigDecimal> initialBalances = new HashMap<>();
+    private Map<String, BigDecimal> movementsAtMiddle;
+    private LocalDateTime middle;
+    private int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("ebank-ledger");
+        String[] contextArgs = {
+                "--spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--ledger.journal.enabled=true",
+                "--ledger.journal.directory=" + directory,
+                // Small segments, so the run crosses segment boundaries
+                "--ledger.journal.segment-size-mb=1"};
+
+        LedgerRecoveryCheck check = new LedgerRecoveryCheck();
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext(contextArgs)) {
+            check.runTransfers(context);
+        }
+        check.simulateCrash(directory);
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext(contextArgs)) {
+            check.verifyRecovery(context);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            System.out.printf("%nJournal segments: %d%n", files.filter(f -> f.toString().endsWith(".seg")).count());
+        }
+        if (check.failures > 0) {
+            System.err.println(check.failures + " ledger check(s) failed");
+            System.exit(1);
+        }
+    }
+
+    private void runTransfers(ConfigurableApplicationContext context) throws Exception {
+        AccountRepository accounts = context.getBean(AccountRepository.class);
+        TransferLedger ledger = context.getBean(TransferLedger.class);
+        for (String rib : List.of(RIB_1, RIB_2)) {
+            initialBalances.put(rib, accounts.findByRib(rib).orElseThrow().getAvailableBalance());
+        }
+
+        transferConcurrently(context);
+        awaitProjection(ledger);
+        Thread.sleep(5);
+        middle = LocalDateTime.now();
+        movementsAtMiddle = databaseMovements(accounts);
+        Thread.sleep(5);
+        transferConcurrently(context);
+        awaitProjection(ledger);
+
+        System.out.printf("%n%-44s %10s %10s%n", "check", RIB_1.substring(20), RIB_2.substring(20));
+        expect("projection after concurrent transfers", ledger.rebuildMovements(LocalDateTime.now()),
+                databaseMovements(accounts));
+        expect("point-in-time rebuild", movementsAtMiddle, ledger.rebuildMovements(middle));
+        System.out.printf("journaled %d transfers in %d projection batches%n", ledger.getAppended(),
+                ledger.getProjectionBatches());
+    }
+
+    // Transfers forced to the journal just before a crash, never projected, then a record torn halfway through
+    private void simulateCrash(Path directory) throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(directory, 1024 * 1024)) {
+            long now = LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            for (int i = 0; i < CRASHED_TRANSFERS; i++) {
+                journal.append(LedgerEvent.transfer(now, RIB_1, RIB_2, new BigDecimal("100.00"), "Crash"));
+            }
+            journal.force(journal.getLastSequence());
+        }
+
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            lastSegment = files.filter(f -> f.toString().endsWith(".seg")).sorted()
+                    .reduce((first, second) -> second).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = segment.limit();
+            while (end > 0 && segment.get(end - 1) == 0) {
+                end--;
+            }
+            // Length and checksum of a record whose payload never made it to disk
+            segment.putInt(end, 64);
+            segment.putInt(end + 4, 0x5EED);
+            segment.put(end + 8, (byte) 1);
+        }
+    }
+
+    private void verifyRecovery(ConfigurableApplicationContext context) throws Exception {
+        AccountRepository accounts = context.getBean(AccountRepository.class);
+        TransferLedger ledger = context.getBean(TransferLedger.class);
+
+        // The startup projection runs before the context is up, so nothing may be left to project
+        if (ledger.getProjectedSequence() != ledger.getLastSequence()) {
+            failures++;
+            System.out.printf("projected up to %d of %d after restart <-- MISMATCH%n",
+                    ledger.getProjectedSequence(), ledger.getLastSequence());
+        }
+        expect("projection after crash recovery", ledger.rebuildMovements(LocalDateTime.now()),
+                databaseMovements(accounts));
+        expect("point-in-time rebuild after recovery", movementsAtMiddle, ledger.rebuildMovements(middle));
+
+        transferConcurrently(context);
+        awaitProjection(ledger);
+        expect("projection after more transfers", ledger.rebuildMovements(LocalDateTime.now()),
+                databaseMovements(accounts));
+
+        verifyChangesOutsideJournal(context);
+    }
+
+    // Status changes and balance corrections made without the ledger must apply to the next transfer
+    private void verifyChangesOutsideJournal(ConfigurableApplicationContext context) throws Exception {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        AccountRepository accounts = context.getBean(AccountRepository.class);
+
+        jdbcTemplate.update("UPDATE accounts SET status = 'BLOCKED', version = version + 1 WHERE rib = ?", RIB_2);
+        expectTransfer(transactionService, "transfer to a blocked account", RIB_1, RIB_2, BigDecimal.ONE, false);
+        expectTransfer(transactionService, "transfer from a blocked account", RIB_2, RIB_1, BigDecimal.ONE, false);
+        jdbcTemplate.update("UPDATE accounts SET status = 'OPEN', version = version + 1 WHERE rib = ?", RIB_2);
+
+        BigDecimal corrected = new BigDecimal("10.00");
+        jdbcTemplate.update("UPDATE accounts SET balance = ?, version = version + 1 WHERE rib = ?", corrected, RIB_1);
+        expectTransfer(transactionService, "transfer above a corrected balance", RIB_1, RIB_2,
+                corrected.add(BigDecimal.ONE), false);
+        expectTransfer(transactionService, "transfer of a corrected balance", RIB_1, RIB_2, corrected, true);
+        // Acknowledged transfers are already in the database
+        BigDecimal balance = accounts.findByRib(RIB_1).orElseThrow().getAvailableBalance();
+        if (balance.signum() != 0) {
+            failures++;
+            System.out.printf("balance after the corrected transfer %s, expected 0 <-- MISMATCH%n", balance);
+        }
+    }
+
+    private void expectTransfer(TransactionService transactionService, String check, String sourceRib,
+            String destinationRib, BigDecimal amount, boolean accepted) {
+        String outcome;
+        try {
+            transactionService.executeTransfer(new TransferRequest(sourceRib, destinationRib, amount, "Ledger"),
+                    RIB_1.equals(sourceRib) ? "client1" : "client2");
+            outcome = "accepted";
+        } catch (BusinessException e) {
+            outcome = "rejected: " + e.getMessage();
+        }
+        boolean ok = accepted == outcome.equals("accepted");
+        if (!ok) {
+            failures++;
+        }
+        System.out.printf("%-44s %s%s%n", check, outcome, ok ? "" : " <-- MISMATCH");
+    }
+
+    private static void awaitProjection(TransferLedger ledger) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PROJECTION_TIMEOUT_MS;
+        while (ledger.getProjectedSequence() < ledger.getLastSequence() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void transferConcurrently(ConfigurableApplicationContext context) throws Exception {
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                boolean forward = t % 2 == 0;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        try {
+                            transactionService.executeTransfer(new TransferRequest(
+                                    forward ? RIB_1 : RIB_2, forward ? RIB_2 : RIB_1, BigDecimal.ONE, "Ledger"),
+                                    forward ? "client1" : "client2");
+                        } catch (RuntimeException e) {
+                            // Rejected by the ledger: nothing was journaled
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Map<String, BigDecimal> databaseMovements(AccountRepository accounts) {
+        Map<String, BigDecimal> movements = new HashMap<>();
+        for (String rib : List.of(RIB_1, RIB_2)) {
+            movements.put(rib, accounts.findByRib(rib).orElseThrow().getAvailableBalance()
+                    .subtract(initialBalances.get(rib)));
+        }
+        return movements;
+    }
+
+    private void expect(String check, Map<String, BigDecimal> expected, Map<String, BigDecimal> actual) {
+        boolean ok = true;
+        for (String rib : List.of(RIB_1, RIB_2)) {
+            BigDecimal value = actual.getOrDefault(rib, BigDecimal.ZERO);
+            ok &= expected.get(rib).compareTo(value) == 0;
+        }
+        if (!ok) {
+            failures++;
+        }
+        System.out.printf("%-44s %10s %10s %s%n", check,
+                actual.getOrDefault(RIB_1, BigDecimal.ZERO), actual.getOrDefault(RIB_2, BigDecimal.ZERO),
+                ok ? "" : "<-- expected " + expected.get(RIB_1) + " / " + expected.get(RIB_2));
+    }
+}
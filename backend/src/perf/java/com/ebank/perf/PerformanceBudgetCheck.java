@@ -0,0 +1,258 @@
+package com.ebank.perf;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.controller.AccountController;
+import com.ebank.controller.ClientController;
+import com.ebank.controller.DashboardController;
+import com.ebank.controller.TransferController;
+import com.ebank.dto.AccountsByRibsRequest;
+import com.ebank.dto.TransferRequest;
+import com.ebank.grpc.AccountGrpcServiceImpl;
+import com.ebank.grpc.TransferGrpcServiceImpl;
+import com.ebank.grpc.generated.AccountLookupResponse;
+import com.ebank.grpc.generated.GetAccountsByRibsRequest;
+import com.ebank.grpc.generated.Money;
+import com.ebank.grpc.generated.TransferGrpcRequest;
+import com.ebank.grpc.generated.TransferGrpcResponse;
+import com.ebank.repository.AccountRepository;
+import com.ebank.service.DashboardCache;
+import com.ebank.soap.AccountEndpoint;
+import io.grpc.stub.StreamObserver;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Runs each REST, gRPC, SOAP and GraphQL operation against embedded H2 and
+ * compares the SQL statements it executes and the bytes it allocates on the
+ * calling thread with the budgets in {@code performance-budgets.properties}.
+ * Exits with a non-zero status when a budget is exceeded, which fails
+ * {@code mvn verify}. Run with {@code -Dbudgets.report=true} to print measurements
+ * without failing.
+ */
+public final class PerformanceBudgetCheck {
+
+    private static final String BUDGETS = "performance-budgets.properties";
+    private static final String RIB_1 = "MA64001128000012345678901234";
+    private static final String RIB_2 = "MA64001128000098765432109876";
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 25;
+
+    private final ConfigurableApplicationContext context;
+    private final Statistics statistics;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<Operation> operations = new ArrayList<>();
+
+    private PerformanceBudgetCheck(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean reportOnly = Boolean.getBoolean("budgets.report");
+        Properties budgets = loadBudgets();
+
+        int failures;
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext(
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+                // Background folds would be counted with the measured operations
+                "--transfer.hot-accounts.fold-interval-ms=3600000")) {
+            PerformanceBudgetCheck check = new PerformanceBudgetCheck(context);
+            check.registerOperations();
+            failures = check.run(budgets);
+        }
+
+        if (failures > 0 && !reportOnly) {
+            System.err.println(failures + " performance budget(s) exceeded");
+            System.exit(1);
+        }
+    }
+
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream input = PerformanceBudgetCheck.class.getClassLoader().getResourceAsStream(BUDGETS)) {
+            if (input == null) {
+                throw new IllegalStateException(BUDGETS + " not found on the classpath");
+            }
+            budgets.load(input);
+        }
+        return budgets;
+    }
+
+    private void registerOperations() {
+        DashboardController dashboardController = context.getBean(DashboardController.class);
+        TransferController transferController = context.getBean(TransferController.class);
+        ClientController clientController = context.getBean(ClientController.class);
+        AccountController accountController = context.getBean(AccountController.class);
+        AccountGrpcServiceImpl accountGrpcService = context.getBean(AccountGrpcServiceImpl.class);
+        TransferGrpcServiceImpl transferGrpcService = context.getBean(TransferGrpcServiceImpl.class);
+        AccountEndpoint accountEndpoint = context.getBean(AccountEndpoint.class);
+        ExecutionGraphQlService graphQlService = context.getBean(ExecutionGraphQlService.class);
+        DashboardCache dashboardCache = context.getBean(DashboardCache.class);
+        Long clientId = context.getBean(AccountRepository.class).findByRib(RIB_1).orElseThrow().getClientId();
+
+        UserDetails client = new User("client1", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        UserDetails agent = new User("agent", "", List.of(new SimpleGrantedAuthority("ROLE_AGENT_GUICHET")));
+
+        add("rest.dashboard", client, () -> dashboardCache.evict(clientId),
+                () -> dashboardController.getDashboard(client, null));
+        add("rest.dashboard.cached", client, null,
+                () -> dashboardController.getDashboard(client, null));
+        add("rest.transfer", client, null,
+                () -> transferController.executeTransfer(nextTransfer(), client));
+        add("rest.clients", agent, null, clientController::getAllClients);
+        add("rest.accounts.lookup", agent, null,
+                () -> accountController.getAccountsByRibs(new AccountsByRibsRequest(List.of(RIB_1, RIB_2, "UNKNOWN"))));
+
+        add("grpc.accounts.lookup", agent, null, () -> accountGrpcService.getAccountsByRibs(
+                GetAccountsByRibsRequest.newBuilder().addRibs(RIB_1).addRibs(RIB_2).addRibs("UNKNOWN").build(),
+                new ResultObserver<AccountLookupResponse>()));
+        add("grpc.transfer", client, null, () -> {
+            TransferRequest transfer = nextTransfer();
+            transferGrpcService.executeTransfer(TransferGrpcRequest.newBuilder()
+                    .setSourceRib(transfer.getSourceRib())
+                    .setDestinationRib(transfer.getDestinationRib())
+                    .setAmount(Money.newBuilder().setUnits(1).setCurrency("MAD"))
+                    .setMotif(transfer.getMotif())
+                    .build(), new ResultObserver<TransferGrpcResponse>());
+        });
+
+        add("soap.accounts.lookup", agent, null, () -> {
+            com.ebank.soap.generated.GetAccountsByRibsRequest request =
+                    new com.ebank.soap.generated.GetAccountsByRibsRequest();
+            request.getRib().addAll(List.of(RIB_1, RIB_2, "UNKNOWN"));
+            accountEndpoint.getAccountsByRibs(request);
+        });
+
+        add("graphql.accounts.lookup", agent, null, () -> graphQl(graphQlService,
+                "{ getAccountsByRibs(ribs: [\"" + RIB_1 + "\", \"" + RIB_2 + "\", \"UNKNOWN\"]) "
+                        + "{ key found account { id rib balance clientName } } }"));
+        add("graphql.accounts.nested", agent, null, () -> graphQl(graphQlService,
+                "{ getAccountsByClientId(clientId: " + clientId + ") { rib balance "
+                        + "client { firstName lastName email } "
+                        + "transactions(first: 5) { edges { node { type amount date } } pageInfo { hasNextPage } } } }"));
+    }
+
+    private void add(String name, UserDetails user, Runnable setUp, Runnable action) {
+        operations.add(new Operation(name, user, setUp, action));
+    }
+
+    // client1 may only debit its own account; each run moves one unit out of its balance
+    private TransferRequest nextTransfer() {
+        return new TransferRequest(RIB_1, RIB_2, BigDecimal.ONE, "Budget check");
+    }
+
+    private static void graphQl(ExecutionGraphQlService service, String document) {
+        ExecutionGraphQlResponse response = service.execute(new DefaultExecutionGraphQlRequest(
+                document, null, null, null, UUID.randomUUID().toString(), null)).block();
+        if (response == null || !response.isValid() || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("GraphQL request failed: "
+                    + (response != null ? response.getErrors() : "no response"));
+        }
+    }
+
+    private int run(Properties budgets) {
+        int failures = 0;
+        System.out.printf("%n%-28s %10s %10s %14s %14s%n", "operation", "queries", "budget", "bytes/call", "budget");
+        for (Operation operation : operations) {
+            Measurement measurement = measure(operation);
+            long queryBudget = budget(budgets, operation.name() + ".queries");
+            long byteBudget = budget(budgets, operation.name() + ".bytes");
+            boolean ok = measurement.queries() <= queryBudget && measurement.bytes() <= byteBudget;
+            if (!ok) {
+                failures++;
+            }
+            System.out.printf("%-28s %10d %10d %14d %14d %s%n", operation.name(),
+                    measurement.queries(), queryBudget, measurement.bytes(), byteBudget, ok ? "" : "<-- OVER BUDGET");
+        }
+        return failures;
+    }
+
+    private static long budget(Properties budgets, String key) {
+        String value = budgets.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing budget " + key + " in " + BUDGETS);
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    private Measurement measure(Operation operation) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                operation.user(), null, operation.user().getAuthorities()));
+        try {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                runOnce(operation);
+            }
+
+            long maxQueries = 0;
+            long[] bytes = new long[MEASURED_RUNS];
+            long threadId = Thread.currentThread().getId();
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                if (operation.setUp() != null) {
+                    operation.setUp().run();
+                }
+                statistics.clear();
+                long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                operation.action().run();
+                bytes[i] = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+                maxQueries = Math.max(maxQueries, statistics.getPrepareStatementCount());
+            }
+            Arrays.sort(bytes);
+            return new Measurement(maxQueries, bytes[MEASURED_RUNS / 2]);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void runOnce(Operation operation) {
+        if (operation.setUp() != null) {
+            operation.setUp().run();
+        }
+        operation.action().run();
+    }
+
+    private record Operation(String name, UserDetails user, Runnable setUp, Runnable action) {
+    }
+
+    private record Measurement(long queries, long bytes) {
+    }
+
+    private static final class ResultObserver<T> implements StreamObserver<T> {
+
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException("gRPC call failed", t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ebank.perf;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.entity.Account;
+import com.ebank.entity.AccountStatus;
+import com.ebank.entity.Client;
+import com.ebank.entity.User;
+import com.ebank.repository.AccountBalanceSlotRepository;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.ClientRepository;
+import com.ebank.repository.TransactionRepository;
+import com.ebank.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Calls every query method declared on the repositories against embedded H2,
+ * once with the H2 schema and dialect and once in MySQL compatibility mode with
+ * the MySQL migrations and dialect, and runs {@code EXPLAIN} on each SQL statement
+ * Hibernate issued. Exits with a non-zero status when a statement reads a table
+ * without an index, which fails {@code mvn verify}. Statements without a
+ * {@code WHERE} clause and the entries of {@link #ALLOWED_SCANS} are exempt.
+ */
+public final class QueryPlanCheck {
+
+    private static final String RIB_1 = "MA64001128000012345678901234";
+    private static final String RIB_2 = "MA64001128000098765432109876";
+    private static final Pattern TABLE_SCAN = Pattern.compile("(?i)public\\.(\\w+)\\.tableScan");
+    private static final Pattern WHERE = Pattern.compile("(?i)\\bwhere\\b");
+
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            "UserRepository.findByEnabledFalseOrCredentialsChangedAtIsNotNull",
+            "loaded once at startup by TokenRevocationRegistry",
+            "AccountBalanceSlotRepository.findAccountIdsToFold",
+            "scheduled fold, the table only holds the slots of hot accounts");
+
+    private static final Set<String> capturedSql = new LinkedHashSet<>();
+
+    private final ConfigurableApplicationContext context;
+    private final Map<String, Runnable> queries = new LinkedHashMap<>();
+
+    private QueryPlanCheck(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static void main(String[] args) {
+        int failures = check("h2",
+                "--spring.datasource.url=jdbc:h2:mem:queryplans;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        failures += check("mysql",
+                "--spring.datasource.url=jdbc:h2:mem:queryplans-mysql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+                "--spring.flyway.locations=classpath:db/migration/mysql");
+
+        if (failures > 0) {
+            System.err.println(failures + " statement(s) read a table without an index");
+            System.exit(1);
+        }
+    }
+
+    private static int check(String mode, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(extraArgs));
+        // The scheduled fold would otherwise run between the statements captured for a method
+        args.add("--transfer.hot-accounts.fold-interval-ms=3600000");
+        args.add("--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + CapturingInspector.class.getName());
+
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext(args.toArray(new String[0]))) {
+            QueryPlanCheck check = new QueryPlanCheck(context);
+            check.registerQueries();
+            check.checkCoverage();
+            return check.run(mode);
+        }
+    }
+
+    private void registerQueries() {
+        AccountRepository accounts = context.getBean(AccountRepository.class);
+        ClientRepository clients = context.getBean(ClientRepository.class);
+        TransactionRepository transactions = context.getBean(TransactionRepository.class);
+        UserRepository users = context.getBean(UserRepository.class);
+        AccountBalanceSlotRepository slots = context.getBean(AccountBalanceSlotRepository.class);
+
+        Account account = accounts.findByRib(RIB_1).orElseThrow();
+        Client client = clients.findById(account.getClientId()).orElseThrow();
+        User user = users.findByUsername("client1").orElseThrow();
+        Long accountId = account.getId();
+        Long clientId = client.getId();
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+
+        add("AccountRepository.findByRib", () -> accounts.findByRib(RIB_1));
+        add("AccountRepository.findByRibIn", () -> accounts.findByRibIn(List.of(RIB_1, RIB_2)));
+        add("AccountRepository.findByClientId", () -> accounts.findByClientId(clientId));
+        add("AccountRepository.findByClientIdAndStatus",
+                () -> accounts.findByClientIdAndStatus(clientId, AccountStatus.OPEN));
+        add("AccountRepository.existsByRib", () -> accounts.existsByRib(RIB_1));
+        add("AccountRepository.findByClientIdOrderByCreatedAtDesc",
+                () -> accounts.findByClientIdOrderByCreatedAtDesc(clientId));
+        add("AccountRepository.findByUserId", () -> accounts.findByUserId(user.getId()));
+        add("AccountRepository.findDashboardAccountsByClientId",
+                () -> accounts.findDashboardAccountsByClientId(clientId));
+        add("AccountRepository.findAccountDTOsByRibIn", () -> accounts.findAccountDTOsByRibIn(List.of(RIB_1, RIB_2)));
+        add("AccountRepository.findAccountDTOsByIdIn", () -> accounts.findAccountDTOsByIdIn(List.of(accountId)));
+
+        add("AccountBalanceSlotRepository.findByAccountId", () -> slots.findByAccountId(accountId));
+        add("AccountBalanceSlotRepository.findAccountIdsToFold", slots::findAccountIdsToFold);
+        add("AccountBalanceSlotRepository.addToSlot", () -> slots.addToSlot(accountId, 0, BigDecimal.ZERO));
+        add("AccountBalanceSlotRepository.subtractFromSlot",
+                () -> slots.subtractFromSlot(accountId, 0, BigDecimal.ZERO));
+
+        add("ClientRepository.findByIdentityNumber", () -> clients.findByIdentityNumber(client.getIdentityNumber()));
+        add("ClientRepository.findByEmail", () -> clients.findByEmail(client.getEmail()));
+        add("ClientRepository.findByUserId", () -> clients.findByUserId(user.getId()));
+        add("ClientRepository.findIdByUsername", () -> clients.findIdByUsername(user.getUsername()));
+        add("ClientRepository.findAllWithUser", clients::findAllWithUser);
+        add("ClientRepository.findWithUserByIdIn", () -> clients.findWithUserByIdIn(List.of(clientId)));
+        add("ClientRepository.existsByIdentityNumber",
+                () -> clients.existsByIdentityNumber(client.getIdentityNumber()));
+        add("ClientRepository.existsByEmail", () -> clients.existsByEmail(client.getEmail()));
+
+        add("TransactionRepository.findByAccountIdOrderByDateDesc",
+                () -> transactions.findByAccountIdOrderByDateDesc(accountId, page));
+        add("TransactionRepository.findTop10ByAccountIdOrderByDateDesc",
+                () -> transactions.findTop10ByAccountIdOrderByDateDesc(accountId));
+        add("TransactionRepository.findTransactionsByAccountId",
+                () -> transactions.findTransactionsByAccountId(accountId, page));
+        add("TransactionRepository.findRecentByAccountId", () -> transactions.findRecentByAccountId(accountId, page));
+        add("TransactionRepository.findPageBefore",
+                () -> transactions.findPageBefore(accountId, now, Long.MAX_VALUE, page));
+        add("TransactionRepository.streamStatement", () -> {
+            try (Stream<?> rows = transactions.streamStatement(accountId, now.minusYears(1), now)) {
+                rows.forEach(row -> { });
+            }
+        });
+        add("TransactionRepository.findRecentByAccountIdIn",
+                () -> transactions.findRecentByAccountIdIn(List.of(accountId), 5));
+
+        add("UserRepository.findByUsername", () -> users.findByUsername(user.getUsername()));
+        add("UserRepository.findByEmail", () -> users.findByEmail(user.getEmail()));
+        add("UserRepository.existsByUsername", () -> users.existsByUsername(user.getUsername()));
+        add("UserRepository.existsByEmail", () -> users.existsByEmail(user.getEmail()));
+        add("UserRepository.findByEnabledFalseOrCredentialsChangedAtIsNotNull",
+                users::findByEnabledFalseOrCredentialsChangedAtIsNotNull);
+        add("UserRepository.findByUpdatedAtAfter", () -> users.findByUpdatedAtAfter(now.minusHours(1)));
+    }
+
+    private void add(String name, Runnable query) {
+        queries.put(name, query);
+    }
+
+    // A query method added to a repository without a plan check fails the build
+    private void checkCoverage() {
+        List<String> missing = Stream.of(AccountRepository.class, AccountBalanceSlotRepository.class,
+                        ClientRepository.class, TransactionRepository.class, UserRepository.class)
+                .flatMap(repository -> Stream.of(repository.getDeclaredMethods())
+                        .filter(method -> !method.isDefault() && !method.isSynthetic())
+                        .map(Method::getName)
+                        .map(name -> repository.getSimpleName() + "." + name))
+                .filter(name -> !queries.containsKey(name))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("No query plan check for " + missing);
+        }
+    }
+
+    private int run(String mode) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        int failures = 0;
+        System.out.printf("%nQuery plans (%s)%n", mode);
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            List<String> statements;
+            synchronized (capturedSql) {
+                capturedSql.clear();
+            }
+            transactionTemplate.executeWithoutResult(status -> query.getValue().run());
+            synchronized (capturedSql) {
+                statements = new ArrayList<>(capturedSql);
+            }
+
+            for (String sql : statements) {
+                // H2 plans EXPLAIN without parameter values
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                Set<String> scanned = scannedTables(plan);
+                boolean exempt = scanned.isEmpty()
+                        || !WHERE.matcher(sql).find()
+                        || ALLOWED_SCANS.containsKey(query.getKey());
+                if (!exempt) {
+                    failures++;
+                }
+                System.out.printf("%-70s %s%n", query.getKey(),
+                        scanned.isEmpty() ? "" : (exempt ? "scan " : "<-- TABLE SCAN ") + scanned);
+                if (!exempt) {
+                    System.out.println(plan);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static Set<String> scannedTables(String plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase());
+        }
+        return tables;
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares.
+     */
+    public static final class CapturingInspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (capturedSql) {
+                capturedSql.add(sql);
+            }
+            return sql;
+        }
+    }
+}
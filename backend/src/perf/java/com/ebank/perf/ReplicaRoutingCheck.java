@@ -0,0 +1,132 @@
+package com.ebank.perf;
+
+import com.ebank.benchmark.BenchmarkSupport;
+import com.ebank.datasource.ReadYourWritesTracker;
+import com.ebank.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Boots the backend on two in-memory H2 databases, a primary and a replica, and
+ * checks which one serves each kind of work: writes, read-only transactions with an
+ * in-sync and a lagging replica, and reads right after the same user wrote.
+ * Replication is simulated by copying the primary's heartbeat to the replica.
+ * Exits with a non-zero status when a read or write lands on the wrong database.
+ */
+public final class ReplicaRoutingCheck {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final long MAX_LAG_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private final PlatformTransactionManager transactionManager;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private int failures;
+
+    private ReplicaRoutingCheck(ConfigurableApplicationContext context) {
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.primary = new JdbcTemplate(context.getBean("primaryDataSource", HikariDataSource.class));
+        this.transactionManager = context.getBean(PlatformTransactionManager.class);
+        this.lagMonitor = context.getBean(ReplicaLagMonitor.class);
+        this.readYourWrites = context.getBean(ReadYourWritesTracker.class);
+    }
+
+    public static void main(String[] args) {
+        // Real replicas get their schema through replication
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+
+        int failures;
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext(
+                "--spring.datasource.url=" + PRIMARY_URL,
+                "--ebank.datasource.replica.urls=" + REPLICA_URL,
+                "--ebank.datasource.replica.max-lag-ms=" + MAX_LAG_MS,
+                // Lag is measured by the check itself
+                "--ebank.datasource.replica.heartbeat-interval-ms=3600000")) {
+            ReplicaRoutingCheck check = new ReplicaRoutingCheck(context);
+            check.run();
+            failures = check.failures;
+        }
+
+        if (failures > 0) {
+            System.err.println(failures + " routing check(s) failed");
+            System.exit(1);
+        }
+    }
+
+    private void run() {
+        System.out.printf("%n%-48s %-10s %-10s%n", "work", "expected", "served by");
+
+        replicate(0);
+        expect("write transaction", "primary", () -> inTransaction(false));
+        expect("no transaction", "primary", this::database);
+        expect("read-only transaction, replica in sync", "replica", () -> inTransaction(true));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("client1", null, List.of()));
+        try {
+            expect("read-only transaction, no recent write", "replica", () -> inTransaction(true));
+            readYourWrites.recordWrite("client1");
+            expect("read-only transaction, same user wrote", "primary", () -> inTransaction(true));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        expect("read-only transaction, primary requested", "primary",
+                () -> readYourWrites.readFromPrimaryIf(true, () -> inTransaction(true)));
+
+        replicate(MAX_LAG_MS * 10);
+        expect("read-only transaction, replica lagging", "primary", () -> inTransaction(true));
+
+        replicate(0);
+        expect("read-only transaction, replica caught up", "replica", () -> inTransaction(true));
+    }
+
+    // Copies the primary's heartbeat to the replica as it was lagMs ago, then measures
+    private void replicate(long lagMs) {
+        lagMonitor.check();
+        Timestamp beat = primary.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1",
+                Timestamp.class);
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1",
+                new Timestamp(beat.getTime() - lagMs));
+        lagMonitor.check();
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> database());
+    }
+
+    private String database() {
+        String name = jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+        return name != null && name.toLowerCase().contains("replica") ? "replica" : "primary";
+    }
+
+    private void expect(String work, String expected, Supplier<String> action) {
+        String actual = action.get();
+        boolean ok = expected.equals(actual);
+        if (!ok) {
+            failures++;
+        }
+        System.out.printf("%-48s %-10s %-10s %s%n", work, expected, actual, ok ? "" : "<-- WRONG DATABASE");
+    }
+}